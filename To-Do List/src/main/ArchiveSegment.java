@@ -0,0 +1,248 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import support.Event;
+import support.EventCodec;
+
+/**
+ *
+ * A file of old finished events that are kept out of FileIO's event list until they are needed.<br>
+ * Each segment holds events of one year (the year of the latest date that they are shown on). The data file keeps an index of the segments,
+ * with the range of days that each segment's events are shown on, so that a segment is only read when a date in its range is viewed.<br>
+ * Reading a segment puts its events back into FileIO's event list (restoring it), and the next save moves the ones that are still old enough back into the archive.<br>
+ * Segments that were written before events had IDs (FileIO versions before 2.6) are kept as they are, and their events are given IDs when they are restored.
+ *
+ * @author James
+ */
+public class ArchiveSegment {
+	
+	/**The year of the latest showing dates of the segment's events*/
+	public final int year;
+	/**The epoch day of the earliest date that any event of the segment is shown on*/
+	public final int firstDay;
+	/**The epoch day of the latest date that any event of the segment is shown on*/
+	public final int lastDay;
+	/**The number of events in the segment*/
+	public final int eventCount;
+	/**False if the segment was written before events had IDs*/
+	public final boolean hasEventIds;
+	/**The file of the segment*/
+	private final File file;
+	/**True if the segment's events were put back into FileIO's event list*/
+	private boolean isRestored;
+	
+	public ArchiveSegment(int year, int firstDay, int lastDay, int eventCount, boolean hasEventIds, File file) {
+		
+		this.year = year;
+		this.firstDay = firstDay;
+		this.lastDay = lastDay;
+		this.eventCount = eventCount;
+		this.hasEventIds = hasEventIds;
+		this.file = file;
+		
+	}
+	
+	public File getFile() {
+		
+		return file;
+		
+	}
+	
+	public boolean isRestored() {
+		
+		return isRestored;
+		
+	}
+	
+	public void setRestored(boolean isRestored) {
+		
+		this.isRestored = isRestored;
+		
+	}
+	
+	/**
+	 * @param epochDay The epoch day of a date
+	 * @return False if none of the segment's events are shown on the date
+	 */
+	public boolean mayBeShownOn(int epochDay) {
+		
+		return epochDay >= firstDay && epochDay <= lastDay;
+		
+	}
+	
+	/**
+	 * @param firstEpochDay The epoch day of the first date of a range
+	 * @param lastEpochDay The epoch day of the last date of the range
+	 * @return False if none of the segment's events are shown on any date in the range
+	 */
+	public boolean mayBeShownBetween(int firstEpochDay, int lastEpochDay) {
+		
+		return firstEpochDay <= lastDay && lastEpochDay >= firstDay;
+		
+	}
+	
+	/**
+	 * Reads the segment's events from its file
+	 * @return A new list of the events. If the segment has no event IDs, the events have no IDs either.
+	 * @throws IOException If the file cannot be read, or doesn't contain a valid list of events
+	 */
+	public ArrayList<Event> read() throws IOException {
+		
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		
+		try {
+			
+			return hasEventIds ? EventCodec.readEvents(input) : EventCodec.readEventsWithoutIds(input);
+			
+		} finally {
+			
+			input.close();
+			
+		}
+		
+	}
+	
+	/**
+	 * Writes the segment's entry of the archive index
+	 * @param output The output to write to
+	 * @throws IOException If the output cannot be written to
+	 */
+	public void writeIndexEntry(DataOutput output) throws IOException {
+		
+		EventCodec.writeSignedVarInt(output, year);
+		EventCodec.writeSignedVarInt(output, firstDay);
+		EventCodec.writeSignedVarInt(output, lastDay);
+		EventCodec.writeVarInt(output, eventCount);
+		output.writeBoolean(hasEventIds);
+		output.writeUTF(file.getName());
+		
+	}
+	
+	/**
+	 * Reads an entry of the archive index that was written by <code>writeIndexEntry</code>
+	 * @param input The input to read from
+	 * @param directory The directory that the segment files are in
+	 * @return The segment
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static ArchiveSegment readIndexEntry(DataInput input, File directory) throws IOException {
+		
+		int year = EventCodec.readSignedVarInt(input);
+		int firstDay = EventCodec.readSignedVarInt(input);
+		int lastDay = EventCodec.readSignedVarInt(input);
+		int eventCount = EventCodec.readVarInt(input);
+		boolean hasEventIds = input.readBoolean();
+		
+		return new ArchiveSegment(year, firstDay, lastDay, eventCount, hasEventIds, new File(directory, input.readUTF()));
+		
+	}
+	
+	/**
+	 * Reads an entry of the archive index of a FileIO version from 2.3 to 2.5, whose segments have no event IDs
+	 * @param input The input to read from
+	 * @param directory The directory that the segment files are in
+	 * @return The segment
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static ArchiveSegment readOldIndexEntry(DataInput input, File directory) throws IOException {
+		
+		int year = EventCodec.readSignedVarInt(input);
+		int firstDay = EventCodec.readSignedVarInt(input);
+		int lastDay = EventCodec.readSignedVarInt(input);
+		int eventCount = EventCodec.readVarInt(input);
+		
+		return new ArchiveSegment(year, firstDay, lastDay, eventCount, false, new File(directory, input.readUTF()));
+		
+	}
+	
+	/**
+	 * Reads a segment from its file alone, for when the archive index that pointed to it was lost
+	 * @param file The file of the segment
+	 * @param year The year of the latest showing dates of the segment's events
+	 * @param hasEventIds False if the segment may have been written before events had IDs
+	 * @return The segment
+	 * @throws IOException If the file cannot be read, or isn't exactly a list of events in the given format
+	 */
+	public static ArchiveSegment readFile(File file, int year, boolean hasEventIds) throws IOException {
+		
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		
+		try {
+			
+			ArrayList<Event> events = hasEventIds ? EventCodec.readEvents(input) : EventCodec.readEventsWithoutIds(input);
+			
+			//Either format can sometimes be read from a file of the other one, but then it almost never ends at the end of the file
+			if(input.read() != -1) {
+				
+				throw new IOException("Unexpected data after the events of " + file.getName());
+				
+			}
+			
+			return create(file, year, hasEventIds, events);
+			
+		} finally {
+			
+			input.close();
+			
+		}
+		
+	}
+	
+	/**
+	 * Encodes events into the contents of a new segment file
+	 * @param events The events, which must all have IDs
+	 * @return The bytes to write to the segment's file
+	 * @throws IOException If the events cannot be encoded
+	 */
+	public static byte[] encode(List<Event> events) throws IOException {
+		
+		ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(byteOutput);
+		EventCodec.writeEvents(output, events);
+		output.close();
+		
+		return byteOutput.toByteArray();
+		
+	}
+	
+	/**
+	 * Creates a new segment of events, without writing its file. The file has to be written with the bytes from <code>encode</code> before the data file points to it.
+	 * @param file The file of the new segment, which should be a file that no other segment uses
+	 * @param year The year of the latest showing dates of the events
+	 * @param events The events, which must all have IDs
+	 * @return The new segment
+	 */
+	public static ArchiveSegment create(File file, int year, List<Event> events) {
+		
+		return create(file, year, true, events);
+		
+	}
+	
+	//Finds the range of days that the events are shown on
+	private static ArchiveSegment create(File file, int year, boolean hasEventIds, List<Event> events) {
+		
+		int firstDay = Integer.MAX_VALUE;
+		int lastDay = Integer.MIN_VALUE;
+		for(Event event : events) {
+			
+			firstDay = Math.min(firstDay, event.getBeginDate().toEpochDay());
+			lastDay = Math.max(lastDay, event.getLatestShowingDate().toEpochDay());
+			
+		}
+		
+		return new ArchiveSegment(year, firstDay, lastDay, events.size(), hasEventIds, file);
+		
+	}
+	
+}
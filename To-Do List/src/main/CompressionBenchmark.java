@@ -0,0 +1,112 @@
+package main;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import support.Event;
+import support.EventCodec;
+
+/**
+ *
+ * Measures how long the events of the data file take to write and read with and without compression, and how large they are, so that it can be decided whether <code>FileIO.setCompressesEvents</code> is worth it.<br>
+ * Usage: <code>CompressionBenchmark [megabytes per second]</code>. The data file at <code>FileIO.FILE_DIR</code> is read, and its events are written in chunks the same way that FileIO writes them.
+ * The speed of the disk (10 MB/s by default, like a slow network home directory) is used to estimate how long saving and loading would take in total.
+ *
+ * @author James
+ */
+public abstract class CompressionBenchmark {
+	
+	/**The number of times that each format is measured. The fastest time is reported.*/
+	private static final int ROUNDS = 10;
+	
+	public static void main(String[] args) throws IOException {
+		
+		double megabytesPerSecond = args.length == 0 ? 10 : Double.parseDouble(args[0]);
+		
+		FileIO.readFromFile();
+		List<Event> events = new ArrayList<Event>(FileIO.getEvents());
+		
+		if(events.isEmpty()) {
+			
+			System.out.println("The data file has no events to measure");
+			return;
+			
+		}
+		
+		System.out.printf("%d events, disk at %.1f MB/s%n", events.size(), megabytesPerSecond);
+		measure("Uncompressed", events, null, megabytesPerSecond);
+		measure("Compressed without dictionary", events, new byte[0], megabytesPerSecond);
+		measure("Compressed with dictionary", events, EventCodec.buildDictionary(events), megabytesPerSecond);
+		
+	}
+	
+	//Writes and reads the events with one format, and prints the results
+	//dictionary is null for uncompressed events
+	private static void measure(String format, List<Event> events, byte[] dictionary, double megabytesPerSecond) throws IOException {
+		
+		byte[] data = null;
+		long writeNanoseconds = Long.MAX_VALUE;
+		long readNanoseconds = Long.MAX_VALUE;
+		
+		for(int round = 0; round < ROUNDS; round++) {
+			
+			long startTime = System.nanoTime();
+			data = write(events, dictionary);
+			writeNanoseconds = Math.min(writeNanoseconds, System.nanoTime() - startTime);
+			
+			startTime = System.nanoTime();
+			int readEvents = read(data, dictionary);
+			readNanoseconds = Math.min(readNanoseconds, System.nanoTime() - startTime);
+			
+			if(readEvents != events.size()) {
+				
+				throw new IllegalStateException(format + " read " + readEvents + " of " + events.size() + " events");
+				
+			}
+			
+		}
+		
+		double diskMilliseconds = data.length / (megabytesPerSecond * 1024 * 1024) * 1000;
+		
+		System.out.printf("%-30s %10d bytes, write %7.1f ms, read %7.1f ms, save %7.1f ms, load %7.1f ms%n", format, data.length,
+				writeNanoseconds / 1e6, readNanoseconds / 1e6, writeNanoseconds / 1e6 + diskMilliseconds, readNanoseconds / 1e6 + diskMilliseconds);
+		
+	}
+	
+	private static byte[] write(List<Event> events, byte[] dictionary) throws IOException {
+		
+		ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(byteOutput);
+		
+		for(int i = 0; i < events.size(); i += FileIO.EVENT_CHUNK_SIZE) {
+			
+			EventCodec.writeEventChunk(output, events.subList(i, Math.min(i + FileIO.EVENT_CHUNK_SIZE, events.size())), dictionary);
+			
+		}
+		
+		return byteOutput.toByteArray();
+		
+	}
+	
+	//Returns the number of events that were read
+	private static int read(byte[] data, byte[] dictionary) throws IOException {
+		
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+		
+		int eventCount = 0;
+		while(input.available() > 0) {
+			
+			eventCount += EventCodec.readEventChunk(input, dictionary).decode().size();
+			
+		}
+		
+		return eventCount;
+		
+	}
+	
+}
@@ -0,0 +1,133 @@
+package main;
+
+import support.Date;
+
+/**
+ *
+ * Checks that every date converts to an epoch day and back to the same date, since Date works out epoch days arithmetically instead of counting them.<br>
+ * Usage: <code>DateRoundTripCheck</code>. Every day from year 1 to 9999 is converted, and the number of days since year 0 is compared with the old way of counting it month by month.
+ * The first and last two years that a Date can have (see <code>Date.MAX_YEAR</code>) are converted too, since the old way doesn't work for negative years.
+ * Each date has to come right after the date before it. Any mismatch is printed, and the program exits with status 1.
+ *
+ * @author James
+ */
+public abstract class DateRoundTripCheck {
+	
+	/**The number of mismatches that are printed before the rest are only counted*/
+	private static final int MAX_PRINTED_MISMATCHES = 20;
+	
+	private static int mismatches;
+	
+	public static void main(String[] args) {
+		
+		int checkedDates = checkYears(1, 9999, true);
+		checkedDates += checkYears(-Date.MAX_YEAR, -Date.MAX_YEAR + 1, false);
+		checkedDates += checkYears(Date.MAX_YEAR - 1, Date.MAX_YEAR, false);
+		
+		//Neither bound can be passed
+		if(Date.isValidDate(12, 31, -Date.MAX_YEAR - 1) || Date.isValidDate(1, 1, Date.MAX_YEAR + 1)) {
+			
+			mismatch("A date past the bounds of MAX_YEAR is valid");
+			
+		}
+		
+		System.out.println("Checked " + checkedDates + " dates, " + mismatches + " mismatches");
+		
+		if(mismatches > 0) {
+			
+			System.exit(1);
+			
+		}
+		
+	}
+	
+	//Converts every day of a range of years to an epoch day and back, and returns the number of days
+	//comparesOldWay is true if the number of days since year 0 is also compared with oldDaysSinceYear0
+	private static int checkYears(int firstYear, int lastYear, boolean comparesOldWay) {
+		
+		int checkedDates = 0;
+		int previousEpochDay = Date.of(1, 1, firstYear).toEpochDay() - 1;
+		
+		for(int year = firstYear; year <= lastYear; year++) {
+			
+			for(int month = 1; month <= 12; month++) {
+				
+				for(int day = 1; day <= Date.getNumberOfDaysInMonth(month, year); day++) {
+					
+					Date date = Date.of(month, day, year);
+					int epochDay = date.toEpochDay();
+					Date roundTrip = Date.ofEpochDay(epochDay);
+					
+					if(roundTrip.getMonth() != month || roundTrip.getDay() != day || roundTrip.getYear() != year) {
+						
+						mismatch(month + "/" + day + "/" + year + " has epoch day " + epochDay + ", which converts back to " + roundTrip.getMonth() + "/" + roundTrip.getDay() + "/" + roundTrip.getYear());
+						
+					}
+					
+					if(epochDay != previousEpochDay + 1) {
+						
+						mismatch(month + "/" + day + "/" + year + " has epoch day " + epochDay + ", but the day before has " + previousEpochDay);
+						
+					}
+					
+					if(comparesOldWay) {
+						
+						int daysSinceYear0 = Date.daysSinceYear0(date);
+						int oldDaysSinceYear0 = oldDaysSinceYear0(month, day, year);
+						
+						if(daysSinceYear0 != oldDaysSinceYear0) {
+							
+							mismatch(month + "/" + day + "/" + year + " is " + daysSinceYear0 + " days since year 0, but the old way counts " + oldDaysSinceYear0);
+							
+						} else if(Date.dateWithDaysSinceYear0(daysSinceYear0).compareTo(date) != 0) {
+							
+							mismatch(daysSinceYear0 + " days since year 0 doesn't convert back to " + month + "/" + day + "/" + year);
+							
+						}
+						
+					}
+					
+					previousEpochDay = epochDay;
+					checkedDates++;
+					
+				}
+				
+			}
+			
+		}
+		
+		return checkedDates;
+		
+	}
+	
+	//The way that Date.daysSinceYear0 used to count days: a year at a time, and then a month at a time
+	//Only works for positive years, since integer division rounds towards 0
+	private static int oldDaysSinceYear0(int month, int day, int year) {
+		
+		int days = year * 365;
+		days += (year - 1) / 4;
+		days -= (year - 1) / 100;
+		days += (year - 1) / 400;
+		
+		for(int previousMonth = 1; previousMonth < month; previousMonth++) {
+			
+			days += Date.getNumberOfDaysInMonth(previousMonth, year);
+			
+		}
+		
+		return days + day;
+		
+	}
+	
+	private static void mismatch(String message) {
+		
+		if(mismatches < MAX_PRINTED_MISMATCHES) {
+			
+			System.out.println(message);
+			
+		}
+		mismatches++;
+		
+	}
+	
+}
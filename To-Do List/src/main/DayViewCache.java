@@ -0,0 +1,91 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import support.Event;
+
+/**
+ *
+ * A cache of the events that are shown on each day, by the epoch day, for the days that were looked at most recently.<br>
+ * The user usually goes back and forth between days that are next to each other, so the events of those days can be shown again without finding them again.
+ * Once the cache is full, the day that was looked at longest ago is forgotten.<br><br>
+ * Like <code>EventIntervalIndex</code>, the cache doesn't know when an event changes, so it has to be told the days that every change affects.
+ * Changes that don't affect which events are shown on a day, or their order, don't need to be told, since the lists have the exact Event objects.
+ *
+ * @author James
+ */
+public class DayViewCache {
+	
+	/**The events that are shown on each day, from the day that was looked at longest ago to the day that was looked at last*/
+	private final LinkedHashMap<Integer, ArrayList<Event>> eventsByDay;
+	
+	/**
+	 * Constructs an empty cache
+	 * @param capacity The greatest number of days that are kept
+	 */
+	public DayViewCache(int capacity) {
+		
+		//Ordering by access makes the first entry the one that was looked at longest ago
+		eventsByDay = new LinkedHashMap<Integer, ArrayList<Event>>(capacity * 2, 0.75f, true) {
+			
+			private static final long serialVersionUID = -2306468226148322146L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, ArrayList<Event>> eldest) {
+				
+				return size() > capacity;
+				
+			}
+			
+		};
+		
+	}
+	
+	/**
+	 * Gets the events that are shown on a day
+	 * @param epochDay The epoch day of the day
+	 * @return The list of the events that was put in the cache, which must not be changed, or null if the day isn't cached
+	 */
+	public ArrayList<Event> get(int epochDay) {
+		
+		return eventsByDay.get(epochDay);
+		
+	}
+	
+	/**
+	 * Caches the events that are shown on a day
+	 * @param epochDay The epoch day of the day
+	 * @param events The events. The list is kept, so it must not be changed after this.
+	 */
+	public void put(int epochDay, ArrayList<Event> events) {
+		
+		eventsByDay.put(epochDay, events);
+		
+	}
+	
+	/**
+	 * Forgets the events of every day in a range of days, after a change to the events that are shown on them
+	 * @param firstEpochDay The epoch day of the first day of the range
+	 * @param lastEpochDay The epoch day of the last day of the range
+	 */
+	public void invalidate(int firstEpochDay, int lastEpochDay) {
+		
+		//Events can be shown for years, so the cached days are checked instead of every day of the range
+		Iterator<Integer> days = eventsByDay.keySet().iterator();
+		while(days.hasNext()) {
+			
+			int day = days.next();
+			if(day >= firstEpochDay && day <= lastEpochDay) {
+				
+				days.remove();
+				
+			}
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,319 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+
+import support.Date;
+import support.Event;
+
+/**
+ *
+ * The events of an event list laid out as columns: an array of each property, where the properties of the event at an index of the event list are at the same index of every array.<br>
+ * Scanning every event then only goes through the arrays that are needed, one after another in memory, instead of following each Event object to its Date objects,
+ * so counts and filters over every event are simple loops over ints. The dates are kept as epoch days, with <code>MappedEventStore.NOT_FINISHED</code> for events that aren't finished.<br>
+ * Events of a <code>MappedEventList</code> that haven't been read yet are laid out from the store's records without reading them, and their titles are only read from the store when they are needed.<br><br>
+ * Like <code>EventIntervalIndex</code>, the columns don't know when an event changes, so they have to be told about every event that is added, removed, edited, or swapped, in the same order as the event list.<br>
+ * An empty slot of the event list (a null event, which is left where an event was removed) is an empty slot of the columns, which has no ID and is never counted or found.
+ *
+ * @author James
+ */
+public class EventColumns {
+	
+	private int[] beginDays;
+	private int[] endDays;
+	private int[] finishedDays;
+	private long[] ids;
+	/**The titles of the events; null for store records whose titles haven't been read yet*/
+	private String[] titles;
+	/**The index of each event's record in the store, for reading its title; -1 for events that aren't records or whose titles have been read*/
+	private int[] recordIndices;
+	/**The store that the event list was read from, if it is a MappedEventList*/
+	private final MappedEventStore store;
+	private int size;
+	
+	/**
+	 * Lays out every event of a list. Events of a MappedEventList that haven't been read yet are laid out without reading them.
+	 * @param events The event list
+	 */
+	public EventColumns(List<Event> events) {
+		
+		MappedEventList mappedEvents = events instanceof MappedEventList ? (MappedEventList) events : null;
+		store = mappedEvents == null ? null : mappedEvents.getStore();
+		
+		size = events.size();
+		int capacity = Math.max(16, size);
+		beginDays = new int[capacity];
+		endDays = new int[capacity];
+		finishedDays = new int[capacity];
+		ids = new long[capacity];
+		titles = new String[capacity];
+		recordIndices = new int[capacity];
+		
+		for(int i = 0; i < size; i++) {
+			
+			//Events that were read may have been changed since, so only the records of events that haven't been read are used
+			int recordIndex = mappedEvents == null ? -1 : mappedEvents.getUnreadRecordIndex(i);
+			
+			if(recordIndex == -1 && events.get(i) == null) {
+				
+				clear(i);
+				
+			} else if(recordIndex != -1) {
+				
+				beginDays[i] = store.getBeginEpochDay(recordIndex);
+				endDays[i] = store.getEndEpochDay(recordIndex);
+				finishedDays[i] = store.getFinishedEpochDay(recordIndex);
+				ids[i] = store.getEventId(recordIndex);
+				recordIndices[i] = recordIndex;
+				
+			} else {
+				
+				set(i, events.get(i));
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * @return The number of events
+	 */
+	public int size() {
+		
+		return size;
+		
+	}
+	
+	/**
+	 * Lays out an event that was added after every other event
+	 * @param event The event
+	 */
+	public void add(Event event) {
+		
+		if(size == beginDays.length) {
+			
+			int newCapacity = size + (size >> 1);
+			beginDays = Arrays.copyOf(beginDays, newCapacity);
+			endDays = Arrays.copyOf(endDays, newCapacity);
+			finishedDays = Arrays.copyOf(finishedDays, newCapacity);
+			ids = Arrays.copyOf(ids, newCapacity);
+			titles = Arrays.copyOf(titles, newCapacity);
+			recordIndices = Arrays.copyOf(recordIndices, newCapacity);
+			
+		}
+		
+		set(size, event);
+		size++;
+		
+	}
+	
+	/**
+	 * Removes the event at an index, leaving an empty slot, so that the indices of the other events don't change
+	 * @param index The index of the event in the event list
+	 */
+	public void remove(int index) {
+		
+		clear(index);
+		
+	}
+	
+	/**
+	 * Lays out an event again after its title or finished date changed
+	 * @param index The index of the event in the event list
+	 * @param event The event
+	 */
+	public void update(int index, Event event) {
+		
+		set(index, event);
+		
+	}
+	
+	/**
+	 * Swaps the positions of two events
+	 * @param index1 The index of one event
+	 * @param index2 The index of the other event
+	 */
+	public void swap(int index1, int index2) {
+		
+		int beginDay = beginDays[index1];
+		beginDays[index1] = beginDays[index2];
+		beginDays[index2] = beginDay;
+		
+		int endDay = endDays[index1];
+		endDays[index1] = endDays[index2];
+		endDays[index2] = endDay;
+		
+		int finishedDay = finishedDays[index1];
+		finishedDays[index1] = finishedDays[index2];
+		finishedDays[index2] = finishedDay;
+		
+		long id = ids[index1];
+		ids[index1] = ids[index2];
+		ids[index2] = id;
+		
+		String title = titles[index1];
+		titles[index1] = titles[index2];
+		titles[index2] = title;
+		
+		int recordIndex = recordIndices[index1];
+		recordIndices[index1] = recordIndices[index2];
+		recordIndices[index2] = recordIndex;
+		
+	}
+	
+	/**
+	 * @param index The index of a slot
+	 * @return True if the slot is empty, since its event was removed
+	 */
+	public boolean isEmpty(int index) {
+		
+		return ids[index] == 0;
+		
+	}
+	
+	public int getBeginEpochDay(int index) {
+		
+		return beginDays[index];
+		
+	}
+	
+	public int getEndEpochDay(int index) {
+		
+		return endDays[index];
+		
+	}
+	
+	/**
+	 * @param index The index of the event
+	 * @return The epoch day of the event's finished date, or <code>MappedEventStore.NOT_FINISHED</code>
+	 */
+	public int getFinishedEpochDay(int index) {
+		
+		return finishedDays[index];
+		
+	}
+	
+	public long getEventId(int index) {
+		
+		return ids[index];
+		
+	}
+	
+	/**
+	 * Gets an event's title, reading it from the store the first time if the event is a store record
+	 * @param index The index of the event
+	 * @return The title
+	 */
+	public String getEventTitle(int index) {
+		
+		if(titles[index] == null) {
+			
+			titles[index] = store.getEventTitle(recordIndices[index]);
+			recordIndices[index] = -1;
+			
+		}
+		
+		return titles[index];
+		
+	}
+	
+	/**
+	 * Counts the events that are overdue on a date (see <code>Event.isOverdue</code>)
+	 * @param epochDay The epoch day of the date
+	 * @return The number of events that aren't finished and end before the date
+	 */
+	public int countOverdue(int epochDay) {
+		
+		int count = 0;
+		for(int i = 0; i < size; i++) {
+			
+			//Branches are avoided so that the loop stays simple
+			count += (endDays[i] < epochDay ? 1 : 0) & (finishedDays[i] == MappedEventStore.NOT_FINISHED ? 1 : 0);
+			
+		}
+		
+		return count;
+		
+	}
+	
+	/**
+	 * Checks if any event was finished before a date
+	 * @param epochDay The epoch day of the date
+	 * @return True if at least one event has a finished date before the date
+	 */
+	public boolean hasFinishedBefore(int epochDay) {
+		
+		for(int i = 0; i < size; i++) {
+			
+			//NOT_FINISHED is less than every epoch day, so it has to be checked separately
+			if(finishedDays[i] < epochDay && finishedDays[i] != MappedEventStore.NOT_FINISHED) {
+				
+				return true;
+				
+			}
+			
+		}
+		
+		return false;
+		
+	}
+	
+	/**
+	 * Finds the events that are shown on any day in a range of days (see <code>Event.isShownOn</code>)
+	 * @param firstEpochDay The epoch day of the first date of the range
+	 * @param lastEpochDay The epoch day of the last date of the range
+	 * @return The indices of the events, in order
+	 */
+	public int[] findShownBetween(int firstEpochDay, int lastEpochDay) {
+		
+		int[] indices = new int[16];
+		int count = 0;
+		
+		for(int i = 0; i < size; i++) {
+			
+			//An event is shown on a day in the range if the days that it is shown on and the range overlap. Events that were finished before they began aren't shown on any day.
+			int latestShowingDay = finishedDays[i] != MappedEventStore.NOT_FINISHED && finishedDays[i] <= endDays[i] ? finishedDays[i] : endDays[i];
+			if(Math.max(beginDays[i], firstEpochDay) <= Math.min(latestShowingDay, lastEpochDay)) {
+				
+				if(count == indices.length) {
+					
+					indices = Arrays.copyOf(indices, count * 2);
+					
+				}
+				indices[count++] = i;
+				
+			}
+			
+		}
+		
+		return Arrays.copyOf(indices, count);
+		
+	}
+	
+	//Empties the slot at an index. The days are chosen so that the slot is never overdue, finished, or shown on any day, without checking if it is empty.
+	private void clear(int index) {
+		
+		beginDays[index] = Integer.MAX_VALUE;
+		endDays[index] = Integer.MAX_VALUE;
+		finishedDays[index] = MappedEventStore.NOT_FINISHED;
+		ids[index] = 0;
+		titles[index] = "";
+		recordIndices[index] = -1;
+		
+	}
+	
+	//Lays out an event at an index
+	private void set(int index, Event event) {
+		
+		beginDays[index] = event.getBeginDate().toEpochDay();
+		endDays[index] = event.getEndDate().toEpochDay();
+		Date finishedDate = event.getFinishedDate();
+		finishedDays[index] = finishedDate == null ? MappedEventStore.NOT_FINISHED : finishedDate.toEpochDay();
+		ids[index] = event.getId();
+		titles[index] = event.getEventTitle();
+		recordIndices[index] = -1;
+		
+	}
+	
+}
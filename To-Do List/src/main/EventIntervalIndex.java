@@ -0,0 +1,438 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+import support.Event;
+
+/**
+ *
+ * An index of events by the range of days that they are shown on, from their begin date to their latest showing date (see <code>Event.isShownOn</code>),
+ * so that the events that are shown on a day can be found without checking every event.<br>
+ * The index is an interval tree: a treap of the events that is ordered by their begin dates, where every node also has the latest showing day of any event below it.
+ * Finding the events that are shown on a day skips every subtree whose events all begin after the day or stop being shown before it,
+ * so it takes O(log n) time plus the time to go down to each event that is found, instead of O(n) time.<br>
+ * Events of a <code>MappedEventList</code> are indexed by the dates in their store records, and are only read once they are found.<br><br>
+ * The index doesn't know when an event changes, so it has to be told about every event that is added, removed, finished, unfinished, or swapped, in the same order as the event list.
+ * Events are always found in the order of the event list.
+ *
+ * @author James
+ */
+public class EventIntervalIndex {
+	
+	/**The root of the treap*/
+	private Node root;
+	/**The list that the events were indexed from, if it is a MappedEventList*/
+	private final MappedEventList mappedEvents;
+	/**The node of every record of the MappedEventList's store, by the index of the record*/
+	private final Node[] recordNodes;
+	/**The nodes of the events that aren't store records, or whose records have been found*/
+	private final IdentityHashMap<Event, Node> nodesByEvent = new IdentityHashMap<Event, Node>();
+	/**The position of the next event that is added, after every other event*/
+	private long nextPosition;
+	/**Tells apart nodes with the same begin day, so that every node has its own place in the treap*/
+	private long nextSerialNumber;
+	/**Gives each node its priority in the treap, which keeps the treap balanced*/
+	private final Random random = new Random();
+	
+	/**
+	 * Indexes every event of a list. Events of a MappedEventList that haven't been read yet are indexed without reading them.
+	 * @param events The event list
+	 */
+	public EventIntervalIndex(List<Event> events) {
+		
+		mappedEvents = events instanceof MappedEventList ? (MappedEventList) events : null;
+		recordNodes = mappedEvents == null ? null : new Node[mappedEvents.getStore().size()];
+		
+		//Empty slots of the event list (null events) are left out
+		Node[] nodes = new Node[events.size()];
+		int nodeCount = 0;
+		for(int i = 0; i < events.size(); i++) {
+			
+			//Events that were read may have been changed since, so only the records of events that haven't been read are used
+			int recordIndex = mappedEvents == null ? -1 : mappedEvents.getUnreadRecordIndex(i);
+			
+			if(recordIndex != -1) {
+				
+				MappedEventStore store = mappedEvents.getStore();
+				Node node = new Node(store.getBeginEpochDay(recordIndex), store.getLatestShowingEpochDay(recordIndex), nextPosition++);
+				node.recordIndex = recordIndex;
+				recordNodes[recordIndex] = node;
+				nodes[nodeCount++] = node;
+				
+			} else if(events.get(i) != null) {
+				
+				Event event = events.get(i);
+				Node node = new Node(event.getBeginDate().toEpochDay(), event.getLatestShowingDate().toEpochDay(), nextPosition++);
+				node.event = event;
+				nodesByEvent.put(event, node);
+				nodes[nodeCount++] = node;
+				
+			}
+			
+		}
+		nodes = Arrays.copyOf(nodes, nodeCount);
+		
+		//Building a balanced treap out of the sorted nodes is much faster than inserting them one at a time
+		//The nodes are sorted by keys of their begin day and their index, which is also the order of their serial numbers, since sorting primitives is much faster than sorting objects
+		long[] sortKeys = new long[nodes.length];
+		for(int i = 0; i < nodes.length; i++) {
+			
+			sortKeys[i] = ((long) nodes[i].firstDay << 32) | i;
+			
+		}
+		Arrays.sort(sortKeys);
+		
+		Node[] sortedNodes = new Node[nodes.length];
+		for(int i = 0; i < nodes.length; i++) {
+			
+			sortedNodes[i] = nodes[(int) sortKeys[i]];
+			
+		}
+		root = build(sortedNodes, 0, sortedNodes.length, 0);
+		
+	}
+	
+	/**
+	 * Indexes an event that was added after every other event
+	 * @param event The event
+	 */
+	public void add(Event event) {
+		
+		Node node = new Node(event.getBeginDate().toEpochDay(), event.getLatestShowingDate().toEpochDay(), nextPosition++);
+		node.event = event;
+		nodesByEvent.put(event, node);
+		root = insert(root, node);
+		
+	}
+	
+	/**
+	 * Removes an event from the index
+	 * @param event The event
+	 */
+	public void remove(Event event) {
+		
+		Node node = findNode(event);
+		
+		root = delete(root, node);
+		nodesByEvent.remove(event);
+		
+	}
+	
+	/**
+	 * Indexes an event again after its dates changed
+	 * @param event The event
+	 */
+	public void update(Event event) {
+		
+		Node node = findNode(event);
+		
+		root = delete(root, node);
+		node.firstDay = event.getBeginDate().toEpochDay();
+		node.lastDay = event.getLatestShowingDate().toEpochDay();
+		root = insert(root, node);
+		
+	}
+	
+	/**
+	 * Swaps the positions of two events
+	 * @param event1 One event
+	 * @param event2 The other event
+	 */
+	public void swap(Event event1, Event event2) {
+		
+		Node node1 = findNode(event1);
+		Node node2 = findNode(event2);
+		
+		//The treap is ordered by the begin days, so only the positions change
+		long position = node1.position;
+		node1.position = node2.position;
+		node2.position = position;
+		
+	}
+	
+	/**
+	 * Gets the events that are shown on a day
+	 * @param epochDay The epoch day of the day
+	 * @return A new list of the events, in the order of the event list
+	 */
+	public ArrayList<Event> getEventsShownOn(int epochDay) {
+		
+		ArrayList<Node> nodes = new ArrayList<Node>();
+		findNodes(root, epochDay, nodes);
+		nodes.sort((node1, node2) -> Long.compare(node1.position, node2.position));
+		
+		ArrayList<Event> events = new ArrayList<Event>(nodes.size());
+		for(Node node : nodes) {
+			
+			events.add(getEvent(node));
+			
+		}
+		
+		return events;
+		
+	}
+	
+	//Adds the nodes below node that are shown on epochDay to foundNodes
+	private static void findNodes(Node node, int epochDay, ArrayList<Node> foundNodes) {
+		
+		//No event below this node is shown on or after epochDay
+		if(node == null || node.maxLastDay < epochDay) {
+			
+			return;
+			
+		}
+		
+		findNodes(node.left, epochDay, foundNodes);
+		
+		//Otherwise, this node and every node to the right of it begins after epochDay
+		if(node.firstDay <= epochDay) {
+			
+			if(node.lastDay >= epochDay) {
+				
+				foundNodes.add(node);
+				
+			}
+			
+			findNodes(node.right, epochDay, foundNodes);
+			
+		}
+		
+	}
+	
+	//Gets the event of a node, reading it from the store if it is a record that hasn't been found yet
+	private Event getEvent(Node node) {
+		
+		if(node.event == null) {
+			
+			node.event = mappedEvents.getRecordEvent(node.recordIndex);
+			nodesByEvent.put(node.event, node);
+			
+		}
+		
+		return node.event;
+		
+	}
+	
+	//Finds the node of an event. Events that are store records are found by their IDs in the store, since they may not have been read through this index.
+	private Node findNode(Event event) {
+		
+		Node node = nodesByEvent.get(event);
+		
+		if(node == null) {
+			
+			//The event must be a store record that was read through the event list
+			node = recordNodes[mappedEvents.getStore().findRecord(event.getId())];
+			node.event = event;
+			nodesByEvent.put(event, node);
+			
+		}
+		
+		return node;
+		
+	}
+	
+	//Builds a balanced treap out of the sorted nodes from index from up to index to, and returns its root
+	//Nodes that are higher up get higher priorities, so that the treap is in heap order. Nodes that are inserted later almost always get lower priorities, so they go near the bottom.
+	private static Node build(Node[] nodes, int from, int to, int depth) {
+		
+		if(from >= to) {
+			
+			return null;
+			
+		}
+		
+		int middle = (from + to) >>> 1;
+		Node node = nodes[middle];
+		node.priority = Integer.MAX_VALUE - depth;
+		node.left = build(nodes, from, middle, depth + 1);
+		node.right = build(nodes, middle + 1, to, depth + 1);
+		node.updateMaxLastDay();
+		
+		return node;
+		
+	}
+	
+	//Inserts newNode into the treap under node, and returns the new root of that part of the treap
+	private Node insert(Node node, Node newNode) {
+		
+		if(node == null) {
+			
+			newNode.priority = random.nextInt();
+			newNode.left = null;
+			newNode.right = null;
+			newNode.updateMaxLastDay();
+			return newNode;
+			
+		}
+		
+		if(newNode.compareTo(node) < 0) {
+			
+			node.left = insert(node.left, newNode);
+			
+			if(node.left.priority > node.priority) {
+				
+				node = rotateRight(node);
+				
+			}
+			
+		} else {
+			
+			node.right = insert(node.right, newNode);
+			
+			if(node.right.priority > node.priority) {
+				
+				node = rotateLeft(node);
+				
+			}
+			
+		}
+		
+		node.updateMaxLastDay();
+		return node;
+		
+	}
+	
+	//Deletes oldNode from the treap under node, and returns the new root of that part of the treap
+	private static Node delete(Node node, Node oldNode) {
+		
+		if(node == oldNode) {
+			
+			return merge(node.left, node.right);
+			
+		}
+		
+		if(oldNode.compareTo(node) < 0) {
+			
+			node.left = delete(node.left, oldNode);
+			
+		} else {
+			
+			node.right = delete(node.right, oldNode);
+			
+		}
+		
+		node.updateMaxLastDay();
+		return node;
+		
+	}
+	
+	//Joins two treaps, where every node of left comes before every node of right
+	private static Node merge(Node left, Node right) {
+		
+		if(left == null) {
+			
+			return right;
+			
+		} else if(right == null) {
+			
+			return left;
+			
+		}
+		
+		if(left.priority > right.priority) {
+			
+			left.right = merge(left.right, right);
+			left.updateMaxLastDay();
+			return left;
+			
+		} else {
+			
+			right.left = merge(left, right.left);
+			right.updateMaxLastDay();
+			return right;
+			
+		}
+		
+	}
+	
+	private static Node rotateRight(Node node) {
+		
+		Node newNode = node.left;
+		node.left = newNode.right;
+		newNode.right = node;
+		node.updateMaxLastDay();
+		newNode.updateMaxLastDay();
+		return newNode;
+		
+	}
+	
+	private static Node rotateLeft(Node node) {
+		
+		Node newNode = node.right;
+		node.right = newNode.left;
+		newNode.left = node;
+		node.updateMaxLastDay();
+		newNode.updateMaxLastDay();
+		return newNode;
+		
+	}
+	
+	/**
+	 * A node of the treap, which is one event
+	 */
+	private class Node implements Comparable<Node> {
+		
+		/**The epoch day of the event's begin date*/
+		private int firstDay;
+		/**The epoch day of the event's latest showing date*/
+		private int lastDay;
+		/**The latest lastDay of this node and every node below it*/
+		private int maxLastDay;
+		/**Where the event is in the event list, compared to the other events*/
+		private long position;
+		private final long serialNumber;
+		private int priority;
+		private Node left;
+		private Node right;
+		/**The event; null if it is a store record that hasn't been found yet*/
+		private Event event;
+		/**The index of the event's store record, if it is one*/
+		private int recordIndex = -1;
+		
+		private Node(int firstDay, int lastDay, long position) {
+			
+			this.firstDay = firstDay;
+			this.lastDay = lastDay;
+			this.position = position;
+			serialNumber = nextSerialNumber++;
+			
+		}
+		
+		private void updateMaxLastDay() {
+			
+			maxLastDay = lastDay;
+			
+			if(left != null) {
+				
+				maxLastDay = Math.max(maxLastDay, left.maxLastDay);
+				
+			}
+			
+			if(right != null) {
+				
+				maxLastDay = Math.max(maxLastDay, right.maxLastDay);
+				
+			}
+			
+		}
+		
+		@Override
+		public int compareTo(Node node) {
+			
+			if(firstDay != node.firstDay) {
+				
+				return Integer.compare(firstDay, node.firstDay);
+				
+			}
+			
+			return Long.compare(serialNumber, node.serialNumber);
+			
+		}
+		
+	}
+	
+}
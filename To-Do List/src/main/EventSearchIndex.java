@@ -0,0 +1,309 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *
+ * An inverted index of the words in the titles of events, so that events can be searched for by their titles without checking every title.<br>
+ * A word is a run of letters and digits, and words are compared without case. Each word has a list of the IDs of the events whose titles contain it, sorted by ID.<br>
+ * A search finds the events whose titles contain any of the words of the search. The last word also matches longer words that begin with it,
+ * since it may not be finished being typed yet. Events that match more of the words come first, and exact words count twice as much as words that only begin with the last word.
+ * Events that match the same amount come newest first, which is the order of their IDs.<br><br>
+ * Like <code>EventIntervalIndex</code>, the index doesn't know when an event changes, so it has to be told about every event that is added or removed, and every title that is changed.
+ *
+ * @author James
+ */
+public class EventSearchIndex {
+	
+	/**The IDs of the events that contain each word*/
+	private final TreeMap<String, Postings> postingsByWord = new TreeMap<String, Postings>();
+	
+	/**
+	 * Indexes the titles of every event
+	 * @param columns The events, laid out as columns. Titles of store records that haven't been read are read from the store, but the events themselves aren't.
+	 */
+	public EventSearchIndex(EventColumns columns) {
+		
+		for(int i = 0; i < columns.size(); i++) {
+			
+			if(!columns.isEmpty(i)) {
+				
+				add(columns.getEventId(i), columns.getEventTitle(i));
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Indexes the title of an event
+	 * @param id The ID of the event
+	 * @param title The title of the event
+	 */
+	public void add(long id, String title) {
+		
+		for(String word : getWords(title)) {
+			
+			postingsByWord.computeIfAbsent(word, (newWord) -> new Postings()).add(id);
+			
+		}
+		
+	}
+	
+	/**
+	 * Removes the title of an event from the index
+	 * @param id The ID of the event
+	 * @param title The title that the event was indexed with
+	 */
+	public void remove(long id, String title) {
+		
+		for(String word : getWords(title)) {
+			
+			Postings postings = postingsByWord.get(word);
+			if(postings != null) {
+				
+				postings.remove(id);
+				
+				if(postings.size == 0) {
+					
+					postingsByWord.remove(word);
+					
+				}
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Searches for the events whose titles contain the words of a search
+	 * @param query The search
+	 * @param maxHits The greatest number of events to find
+	 * @return The IDs of the events that were found, best match first
+	 */
+	public long[] search(String query, int maxHits) {
+		
+		String[] words = getWords(query);
+		
+		//The IDs of the events that match any word so far, sorted, and how well each one matches
+		long[] ids = new long[0];
+		int[] scores = new int[0];
+		int maxScore = 0;
+		
+		for(int i = 0; i < words.length; i++) {
+			
+			//Each match is the ID shifted up, with the lowest bit set if the word matched exactly, so that sorting puts an exact match after a prefix match of the same event
+			long[] matches = findMatches(words[i], i == words.length - 1);
+			Arrays.sort(matches);
+			
+			//Add the matches to the scores, counting each event once for this word
+			long[] mergedIds = new long[ids.length + matches.length];
+			int[] mergedScores = new int[ids.length + matches.length];
+			int mergedCount = 0;
+			int j = 0;
+			int k = 0;
+			while(j < ids.length || k < matches.length) {
+				
+				//Skip ahead to the best match of the event for this word
+				while(k + 1 < matches.length && matches[k + 1] >>> 1 == matches[k] >>> 1) {
+					
+					k++;
+					
+				}
+				
+				long matchId = k < matches.length ? matches[k] >>> 1 : Long.MAX_VALUE;
+				if(j < ids.length && ids[j] < matchId) {
+					
+					mergedIds[mergedCount] = ids[j];
+					mergedScores[mergedCount++] = scores[j++];
+					
+				} else {
+					
+					int score = (matches[k] & 1) == 1 ? 2 : 1;
+					if(j < ids.length && ids[j] == matchId) {
+						
+						score += scores[j++];
+						
+					}
+					
+					mergedIds[mergedCount] = matchId;
+					mergedScores[mergedCount++] = score;
+					k++;
+					
+				}
+				
+			}
+			
+			ids = Arrays.copyOf(mergedIds, mergedCount);
+			scores = Arrays.copyOf(mergedScores, mergedCount);
+			maxScore += 2;
+			
+		}
+		
+		//The scores are small, so the best events are found by going through the IDs once for each score, from the best score down, and newest first
+		long[] hits = new long[Math.min(maxHits, ids.length)];
+		int hitCount = 0;
+		for(int score = maxScore; score > 0 && hitCount < hits.length; score--) {
+			
+			for(int i = ids.length - 1; i >= 0 && hitCount < hits.length; i--) {
+				
+				if(scores[i] == score) {
+					
+					hits[hitCount++] = ids[i];
+					
+				}
+				
+			}
+			
+		}
+		
+		return hits;
+		
+	}
+	
+	//Finds the events that contain a word, or a word that begins with it if isPrefix is true
+	//Each match is the ID shifted up by one bit, with the lowest bit set if the word matched exactly. They aren't sorted.
+	private long[] findMatches(String word, boolean isPrefix) {
+		
+		Map<String, Postings> matchingPostings = isPrefix ? postingsByWord.subMap(word, true, word + Character.MAX_VALUE, false) : postingsByWord.subMap(word, true, word, true);
+		
+		int matchCount = 0;
+		for(Postings postings : matchingPostings.values()) {
+			
+			matchCount += postings.size;
+			
+		}
+		
+		long[] matches = new long[matchCount];
+		int index = 0;
+		for(Map.Entry<String, Postings> entry : matchingPostings.entrySet()) {
+			
+			long exactBit = entry.getKey().equals(word) ? 1 : 0;
+			Postings postings = entry.getValue();
+			for(int i = 0; i < postings.size; i++) {
+				
+				matches[index++] = (postings.ids[i] << 1) | exactBit;
+				
+			}
+			
+		}
+		
+		return matches;
+		
+	}
+	
+	/**
+	 * Splits text into its words, which are runs of letters and digits, in lower case. Each word is only returned once.
+	 * @param text The text
+	 * @return The words
+	 */
+	public static String[] getWords(String text) {
+		
+		String[] words = new String[4];
+		int wordCount = 0;
+		
+		int i = 0;
+		while(i < text.length()) {
+			
+			//Skip to the beginning of the next word
+			while(i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+				
+				i++;
+				
+			}
+			
+			int wordStart = i;
+			while(i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+				
+				i++;
+				
+			}
+			
+			if(i > wordStart) {
+				
+				String word = text.substring(wordStart, i).toLowerCase(Locale.ROOT);
+				
+				boolean isRepeated = false;
+				for(int j = 0; j < wordCount && !isRepeated; j++) {
+					
+					isRepeated = words[j].equals(word);
+					
+				}
+				
+				if(!isRepeated) {
+					
+					if(wordCount == words.length) {
+						
+						words = Arrays.copyOf(words, wordCount * 2);
+						
+					}
+					words[wordCount++] = word;
+					
+				}
+				
+			}
+			
+		}
+		
+		return Arrays.copyOf(words, wordCount);
+		
+	}
+	
+	/**
+	 * The IDs of the events that contain a word, sorted
+	 */
+	private static class Postings {
+		
+		private long[] ids = new long[2];
+		private int size;
+		
+		private void add(long id) {
+			
+			//New events have the newest IDs, so they almost always go at the end
+			int index = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+			
+			if(index >= 0 && index < size) {
+				
+				//The event already contains the word
+				return;
+				
+			}
+			
+			if(index < 0) {
+				
+				index = -index - 1;
+				
+			}
+			
+			if(size == ids.length) {
+				
+				ids = Arrays.copyOf(ids, size * 2);
+				
+			}
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			ids[index] = id;
+			size++;
+			
+		}
+		
+		private void remove(long id) {
+			
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			
+			if(index >= 0) {
+				
+				System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+				size--;
+				
+			}
+			
+		}
+		
+	}
+	
+}
@@ -1,27 +1,69 @@
 package main;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInput;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
 
+import support.Date;
 import support.Date.DateFormat;
 import support.Event;
+import support.EventCodec;
 
 /**
  * 
  * Provides input and output for the file that stores data for this program.<br>
  * Data are read from the file and put into private static fields that have their getter and (usually) setter methods.<br>
- * Methods that modify data, such as any setter methods, will ONLY modify the static fields—NOT THE FILE.<br>
- * Data are only saved to the file when the <code>saveToFile()</code> method is called.
+ * Methods that modify data, such as any setter methods, will modify the static fields and append a small record of the change to the journal (see <code>Journal</code>)—NOT THE DATA FILE.<br>
+ * A background save thread writes the journal to the disk <code>AUTOSAVE_DELAY_MILLISECONDS</code> after a change, along with any other changes made in the meantime.<br>
+ * The data file is only rewritten when the <code>saveToFile()</code> method is called, or when the journal has grown past <code>JOURNAL_COMPACTION_THRESHOLD</code>. 
+ * It is written to a temporary file first, which then replaces the data file, so that a crash while saving never leaves a partially written data file behind.<br>
+ * Otherwise, the events are written in chunks that are decoded in parallel in the background. The settings come first, so that the program can be shown before every event has been read.<br>
+ * Once there are at least <code>MAPPED_STORE_THRESHOLD</code> events, they are saved in a separate <code>MappedEventStore</code> instead of the data file, so that they are only read when they are needed.<br>
+ * Events that were finished more than <code>getArchiveAgeDays()</code> days ago are moved into an archive of per-year segment files (see <code>ArchiveSegment</code>) when the data file is saved. 
+ * A segment is only read once a date that its events are shown on is viewed.<br><br>
+ * Every version of the data file that can still be read has a reader, and an upgrader that fills in the properties that the next version added. 
+ * A file is read by the reader of its version, and then upgraded one version at a time to the current version. <code>migrateFile</code> uses these to rewrite old files in the current format.<br><br>
+ * The data file is made of blocks that each have a CRC-32 checksum: a header with the settings and the archive index, and then each chunk of events. 
+ * The chunks are checked as they are decoded in parallel. If any block is damaged or the file ends early, every intact event is still read, 
+ * and the file is copied aside with <code>DAMAGED_SUFFIX</code> (see <code>isDataFileDamaged()</code>) before a save can replace it.<br>
+ * If <code>getCompressesEvents()</code> is true, the chunks are compressed with a dictionary of the titles that repeat the most, which is kept in its own block after the header.<br><br>
+ * Every event has an ID (see <code>Event.getId</code>) that is saved along with it, and an index of the positions of the events by their IDs lets events be looked up without searching the event list (see <code>getEvent</code>). 
+ * Removing an event leaves an empty slot in the event list instead of moving the events after it, so removing, editing, and swapping events by their IDs take constant time.<br>
+ * The journal refers to events by their IDs. Events that were saved before they had IDs are given them, in order, when they are read.<br>
+ * Counts and filters that go through every event, such as <code>countOverdueEvents</code>, use the events laid out as columns (see <code>EventColumns</code>) instead of the Event objects.
  * 
  * 
  * @author James
- * @version 1.2
+ * @version 2.6
  */
 public abstract class FileIO {
 
@@ -30,17 +72,70 @@ public abstract class FileIO {
 	 */
 	public static final String FILE_DIR = "todolist.dat";
 	
+	/**
+	 * The directory of the journal file, which stores the changes made since the data file was last written
+	 */
+	public static final String JOURNAL_DIR = "todolist.journal";
+	
+	/**
+	 * Once the journal is larger than this amount of bytes, it is folded back into the data file
+	 */
+	public static final long JOURNAL_COMPACTION_THRESHOLD = 256 * 1024;
+	
+	/**
+	 * The amount of time between a change and the background save that saves it
+	 */
+	public static final int AUTOSAVE_DELAY_MILLISECONDS = 2000;
+	
+	/**
+	 * Once there are at least this many events, they are saved in a <code>MappedEventStore</code> instead of in the data file
+	 */
+	public static final int MAPPED_STORE_THRESHOLD = 50000;
+	
+	/**
+	 * The beginning of the name of every event store file. The rest of the name makes it unique, since a store that is open can't always be replaced.
+	 */
+	public static final String EVENT_STORE_PREFIX = "todolist.events.";
+	
+	/**
+	 * The beginning of the name of every archive segment file. The rest of the name is the segment's year, and a number that makes it unique.
+	 */
+	public static final String ARCHIVE_PREFIX = "todolist.archive.";
+	
+	/**
+	 * The greatest number of events in each chunk of the data file
+	 */
+	public static final int EVENT_CHUNK_SIZE = 4096;
+	
+	/**
+	 * The greatest number of days whose events are kept by <code>getEventsShownOn</code>, so that days that were just looked at can be shown again without finding their events again
+	 */
+	public static final int DAY_VIEW_CACHE_SIZE = 32;
+	
 	/**
 	 * The version of FileIO. This prevents improper reading of files that were written by a different FileIO version (which has a different output).<br>Files, no matter the version, should begin with a String representation of the FileIO version that last edited it.
 	 */
-	public static final String IO_VERSION = "1.2";
+	public static final String IO_VERSION = "2.6";
+	
+	/**
+	 * What is added to the name of a damaged data file (along with a number) when it is copied aside
+	 */
+	public static final String DAMAGED_SUFFIX = ".damaged.";
+	
+	//The first two bytes of every Java object stream, which is what files were written as before FileIO version 2.0
+	private static final int OBJECT_STREAM_MAGIC_HIGH_BYTE = 0xAC;
+	private static final int OBJECT_STREAM_MAGIC_LOW_BYTE = 0xED;
+	
+	//Where the events of a data file are
+	private static final byte INLINE_EVENT_STORAGE = 0;
+	private static final byte MAPPED_EVENT_STORAGE = 1;
 	
 	/**The file's version*/
 	private static String originalFileVersion; 
 	/**Setting: true if user is using dark mode; Property added in FileIO version 1.0*/
 	private static boolean usesDarkMode; 
-	/**Property added in FileIO version 1.0*/
-	private static ArrayList<Event> eventList; 
+	/**Property added in FileIO version 1.0. Removed events leave empty slots (null events), so that the positions of the other events don't change, until the list is compacted (see <code>compactEventList</code>).*/
+	private static List<Event> eventList; 
 	//Setting: amount of time user should press down on an event to mark it as done; Property added in FileIO version 1.1*/
 	private static int longPressMilliseconds; 
 	/**Setting: the color of the event when it is marked as done in LIGHT MODE; Property added in FileIO version 1.1*/
@@ -53,68 +148,128 @@ public abstract class FileIO {
 	private static int[] darkOverdueEventColorRGB;
 	/**Setting: the date format; Property added in FileIO version 1.1*/
 	private static DateFormat dateFormat;
+	/**The generation of the journal that the data file was written from, so that a journal can be matched with the data file it belongs to; Property added in FileIO version 1.3*/
+	private static long generation;
+	/**The offset into the journal up to which the data file contains the journal's changes; Property added in FileIO version 1.4*/
+	private static long journalOffset;
+	/**Setting: the number of days after an event is finished before it is moved into the archive; Property added in FileIO version 2.3*/
+	private static int archiveAgeDays;
+	/**The segments of the archive; Property added in FileIO version 2.3*/
+	private static ArrayList<ArchiveSegment> archiveSegments;
+	/**Setting: true if the events in the data file should be compressed; Property added in FileIO version 2.5*/
+	private static boolean compressesEvents;
+	/**The ID that the next event that is added is given. IDs are never given out twice, even after their events are removed; Property added in FileIO version 2.6*/
+	private static long nextEventId;
+	
+	/**The journal that changes are appended to*/
+	private static Journal journal;
+	/**The thread that saves changes in the background*/
+	private static final ScheduledExecutorService saveExecutor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+		
+		Thread saveThread = new Thread(runnable, "FileIO save thread");
+		//The save thread shouldn't keep the program running. The shutdown hook saves whatever is left.
+		saveThread.setDaemon(true);
+		return saveThread;
+		
+	});
+	/**True if the save thread is going to save soon*/
+	private static boolean isAutosaveScheduled;
+	/**Only one save can write the data file or the journal to the disk at a time*/
+	private static final Object saveLock = new Object();
+	/**The IDs of the events that were changed while a save that archives events was writing to the disk; null when no such save is writing*/
+	private static HashSet<Long> changedEventIds;
+	/**The chunks of events that are being decoded in the background; null once every event has been read*/
+	private static ArrayList<EventCodec.Chunk> eventChunks;
+	/**The tasks that decode each chunk in <code>eventChunks</code>*/
+	private static ArrayList<ForkJoinTask<ArrayList<Event>>> eventChunkTasks;
+	/**The index of the events by the days that they are shown on; null until it is needed*/
+	private static EventIntervalIndex eventIntervalIndex;
+	/**The position in the event list of each event by its ID, except for the records of an event store, whose positions are kept by the MappedEventList; null until it is needed*/
+	private static HashMap<Long, Integer> eventPositions;
+	/**The number of empty slots in the event list*/
+	private static int removedEventCount;
+	/**The events laid out as columns, for going through every event quickly; null until it is needed*/
+	private static EventColumns eventColumns;
+	/**The index of the words in the titles of the events; null until it has been built*/
+	private static EventSearchIndex eventSearchIndex;
+	/**The task that builds <code>eventSearchIndex</code> in the background; null if it isn't being built*/
+	private static ForkJoinTask<?> searchIndexTask;
+	/**The changes to the titles of the events that were made while <code>eventSearchIndex</code> was being built, which are applied to it once it is built*/
+	private static ArrayList<SearchIndexChange> searchIndexChanges;
+	/**The events that are shown on the days that were looked at most recently; null until it is needed*/
+	private static DayViewCache dayViewCache;
+	/**Changes from the journal to the events that are still being decoded*/
+	private static ArrayList<Journal.Record> pendingJournalRecords = new ArrayList<Journal.Record>();
+	/**The data file that was read last*/
+	private static File dataFile;
+	/**True if part of the data file that was read last was damaged*/
+	private static boolean isDataFileDamaged;
 	
 	/**
 	 * Read the contents of the file, and put them into private static fields for access through getter and setter methods.
 	 */
-	@SuppressWarnings("unchecked")
 	public synchronized static void readFromFile() {
 		
+		beginReadingFromFile();
+		finishReadingEvents();
+		
+	}
+	
+	/**
+	 * Read the settings from the file, and start decoding the events in the background<br>
+	 * This returns as soon as the settings can be used. Methods that need every event wait for the rest of the events to be decoded, 
+	 * but <code>getEventsShownOn</code> only waits for the chunks of events that may be shown on its date.
+	 */
+	public synchronized static void beginReadingFromFile() {
+		
+		originalFileVersion = null;
+		eventChunks = null;
+		eventChunkTasks = null;
+		pendingJournalRecords.clear();
+		
 		try {
 
-			ObjectInputStream input = new ObjectInputStream(new FileInputStream(FILE_DIR));
-			
-			originalFileVersion = input.readUTF();
-						
-			if(originalFileVersion.equals(IO_VERSION)) {
-				
-				//The FileIO that last edited this file is up to date, so it can be read normally
+			try {
 				
-				usesDarkMode = input.readBoolean();
-				eventList = (ArrayList<Event>) input.readObject();
-				longPressMilliseconds = input.readInt();
-				lightFinishedEventColorRGB = (int[]) input.readObject();
-				darkFinishedEventColorRGB = (int[]) input.readObject();
-				lightOverdueEventColorRGB = (int[]) input.readObject();
-				darkOverdueEventColorRGB = (int[]) input.readObject();
-				dateFormat = (DateFormat) input.readObject();
+				readData(new File(FILE_DIR));
 				
-			} else {
+			} catch(EOFException e) {
 				
-				//The FileIO that last edited this file is old
-				readOldFileVersion(originalFileVersion, input);
+				//Since the file version should always be at the beginning of the file, if originalFileVersion is null, then the file is empty and the default values are used
+				if(originalFileVersion != null) {
+					
+					//The file ended abruptly for whatever reason, so whatever was read before the end is used
+					e.printStackTrace();
+					quarantineDataFile();
+					
+				}
 				
 			}
 			
-			input.close();
-			
-		} catch(EOFException e) {
+			//Apply the changes that were made since the file was last written
+			openJournal();
 			
-			if(originalFileVersion == null) {
-				
-				//Since the file version should always be at the beginning of the file, if originalFileVersion is null, then the file is empty
-				setDefaultValues();
-				
-			} else {
-				
-				//The file ended abruptly for whatever reason, meaning that the file is corrupted or isn't in the right format
-				e.printStackTrace();
-				
-			}
+			//Event stores are left behind when they couldn't be deleted while they were open
+			deleteUnusedFiles(eventList instanceof MappedEventList ? ((MappedEventList) eventList).getStore().getFile() : null);
 			
 		} catch(FileNotFoundException e) {
 			
-			//If file wasn't found, just set the default values. A new file will be created when saveToFile() is called
+			//If file wasn't found, just use the default values. A new file will be created when saveToFile() is called
 			originalFileVersion = IO_VERSION;
-			setDefaultValues();
+			openJournal();
 			
 		} catch(IOException e) {
 
+			//The file is corrupted or isn't in the right format, so whatever was read before the error is used
 			e.printStackTrace();
+			quarantineDataFile();
+			openJournal();
 
 		} catch (ClassNotFoundException e) {
 
 			e.printStackTrace();
+			quarantineDataFile();
+			openJournal();
 
 		}
 		
@@ -123,41 +278,276 @@ public abstract class FileIO {
 	/**
 	 * Clear the file's contents and output the private static fields to the file<br>
 	 * If there is no file, a new file with directory at <code>FILE_DIR</code> will be created<br>
-	 * Similar to the <code>flush()</code> method of many output streams
+	 * The data are written to a temporary file, which then replaces the data file. Since the data file then contains every change, the journal is started over.
 	 */
-	public synchronized static void saveToFile() {
+	public static void saveToFile() {
+		
+		synchronized(saveLock) {
+			
+			ArrayList<ArchiveSegment> segmentsToRead = null;
+			
+			synchronized(FileIO.class) {
+				
+				finishReadingEvents();
+				
+				if(hasEventsToArchive()) {
+					
+					segmentsToRead = findSegmentsToArchiveInto();
+					
+				}
+				
+			}
+			
+			HashMap<ArchiveSegment, ArrayList<Event>> readSegments = null;
+			if(segmentsToRead != null) {
+				
+				//Segment files never change, so they are read without holding onto FileIO's data
+				readSegments = new HashMap<ArchiveSegment, ArrayList<Event>>();
+				try {
+					
+					for(ArchiveSegment segment : segmentsToRead) {
+						
+						readSegments.put(segment, segment.read());
+						
+					}
+					
+				} catch(IOException e) {
+					
+					e.printStackTrace();
+					return;
+					
+				}
+				
+			}
+			
+			writeDataFile(readSegments);
+			
+		}
+		
+	}
+	
+	//Writes the data file, and then starts the journal over
+	//If readSegments isn't null, old enough events are archived. readSegments has the events of the segments that findSegmentsToArchiveInto found.
+	//Archived events stay in the event list until their segments and the data file are written, so that changes can still be made in the meantime.
+	private static void writeDataFile(Map<ArchiveSegment, ArrayList<Event>> readSegments) {
+		
+		//The segments that are written along with the data file, if events are archived
+		ArrayList<NewArchiveSegment> newSegments = null;
 		
 		try {
-
-			ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream(FILE_DIR));
 			
-			output.writeUTF(IO_VERSION);
-			output.writeBoolean(usesDarkMode);
-			output.writeObject(eventList);
-			output.writeInt(longPressMilliseconds);
-			output.writeObject(lightFinishedEventColorRGB);
-			output.writeObject(darkFinishedEventColorRGB);
-			output.writeObject(lightOverdueEventColorRGB);
-			output.writeObject(darkOverdueEventColorRGB);
-			output.writeObject(dateFormat);
+			byte[] data;
+			//The event store that the data file points to, if the events aren't in the data file
+			File eventStoreFile = null;
+			byte[] eventStoreData = null;
+			//The events and archive segments that the data file contains
+			List<Event> savedEvents;
+			ArrayList<ArchiveSegment> savedArchiveSegments;
 			
-			output.close();
+			//Only hold onto FileIO's data while they are copied, so that changes can still be made while the copy is written to the disk
+			synchronized(FileIO.class) {
+				
+				//The events are saved without the empty slots
+				compactEventList();
+				
+				if(journal != null) {
+					
+					//The data file will contain every change in the journal up to this point
+					generation = journal.getGeneration();
+					journalOffset = journal.length();
+					
+				}
+				
+				if(readSegments != null) {
+					
+					savedEvents = new ArrayList<Event>();
+					newSegments = new ArrayList<NewArchiveSegment>();
+					savedArchiveSegments = archiveEvents(savedEvents, readSegments, newSegments);
+					
+					//The new segments won't contain the changes that are made to their events from now on
+					changedEventIds = new HashSet<Long>();
+					
+				} else {
+					
+					//The events of restored segments are in the event list
+					savedEvents = eventList;
+					savedArchiveSegments = new ArrayList<ArchiveSegment>();
+					for(ArchiveSegment segment : archiveSegments) {
+						
+						if(!segment.isRestored()) {
+							
+							savedArchiveSegments.add(segment);
+							
+						}
+						
+					}
+					
+				}
+				
+				if(savedEvents.size() >= MAPPED_STORE_THRESHOLD) {
+					
+					eventStoreFile = createUniqueFile(EVENT_STORE_PREFIX);
+					eventStoreData = MappedEventStore.encode(savedEvents);
+					
+				}
+				
+				ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+				DataOutputStream output = new DataOutputStream(byteOutput);
+				writeData(output, savedEvents, savedArchiveSegments, eventStoreFile);
+				output.close();
+				data = byteOutput.toByteArray();
+				
+			}
+			
+			//The segments and the event store have to exist before the data file points to them
+			if(newSegments != null) {
+				
+				for(NewArchiveSegment newSegment : newSegments) {
+					
+					writeAtomically(newSegment.segment.getFile(), newSegment.data);
+					
+				}
+				
+			}
+			if(eventStoreFile != null) {
+				
+				writeAtomically(eventStoreFile, eventStoreData);
+				
+			}
+			writeAtomically(new File(FILE_DIR), data);
+			
+			//Start the journal over, keeping only the changes that were made while the data file was being written
+			synchronized(FileIO.class) {
+				
+				archiveSegments = savedArchiveSegments;
+				
+				if(newSegments != null) {
+					
+					//The changes are journaled again before the journal is started over, so that they are kept either way
+					HashSet<Long> changedIds = changedEventIds;
+					changedEventIds = null;
+					finishArchivingEvents(newSegments, changedIds);
+					
+				}
+				
+				if(journal != null && journal.getGeneration() == generation) {
+					
+					journal.rotate(journalOffset);
+					
+				}
+				
+				deleteUnusedFiles(eventStoreFile);
+				
+			}
 			
 		} catch (IOException e) {
-
+			
 			e.printStackTrace();
-
+			
+		} finally {
+			
+			if(newSegments != null) {
+				
+				synchronized(FileIO.class) {
+					
+					changedEventIds = null;
+					
+				}
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Makes sure that every change is saved<br>
+	 * Changes are already in the journal, so this only writes the journal to the disk. The data file is only rewritten if the journal has grown past <code>JOURNAL_COMPACTION_THRESHOLD</code>
+	 */
+	public static void saveChanges() {
+		
+		//The save lock keeps the journal from being started over while the disk stores it
+		synchronized(saveLock) {
+			
+			Journal flushedJournal = null;
+			boolean needsCompaction;
+			
+			synchronized(FileIO.class) {
+				
+				try {
+					
+					if(journal != null) {
+						
+						journal.flush();
+						flushedJournal = journal;
+						
+					}
+					
+				} catch(IOException e) {
+					
+					e.printStackTrace();
+					
+				}
+				
+				needsCompaction = journal == null || journal.length() > JOURNAL_COMPACTION_THRESHOLD;
+				
+			}
+			
+			//Waiting for the disk doesn't hold onto FileIO's data, so that changes can still be made in the meantime
+			try {
+				
+				if(flushedJournal != null) {
+					
+					flushedJournal.force();
+					
+				}
+				
+			} catch(IOException e) {
+				
+				e.printStackTrace();
+				
+			}
+			
+			if(needsCompaction) {
+				
+				saveToFile();
+				
+			}
+			
 		}
 		
 	}
 	
 	/**
-	 * Adds an event
+	 * Adds an event. The event is given a new ID, even if it had one before.
 	 * @param event The event to add
 	 */
-	public static void addEvent(Event event) {
+	public synchronized static void addEvent(Event event) {
 		
-		eventList.add(event);
+		finishReadingEvents();
+		
+		event.setId(nextEventId++);
+		putEvent(event);
+		
+		if(journal != null) {
+			
+			journal.logAddEvent(event);
+			scheduleAutosave();
+			
+		}
+		
+	}
+	
+	/**
+	 * Gets an event by its ID (see <code>Event.getId</code>). This takes constant time, and doesn't read any other event.
+	 * @param id The ID of the event
+	 * @return The <i>exact</i> Event object with the ID, or null if no event in the event list has the ID
+	 */
+	public synchronized static Event getEvent(long id) {
+		
+		finishReadingEvents();
+		
+		return findEvent(id);
 		
 	}
 	
@@ -166,9 +556,28 @@ public abstract class FileIO {
 	 * @param event The <i>exact</i> event object to remove (there is no implemented <code>equals</code> method for Event)
 	 * @return True if the event object was found and removed in the internal ArrayList, false otherwise
 	 */
-	public static boolean removeEvent(Event event) {
+	public synchronized static boolean removeEvent(Event event) {
+		
+		finishReadingEvents();
+		
+		//The event is found by its ID, without looking through the list
+		int eventIndex = indexOfEvent(event);
+		if(eventIndex == -1) {
+			
+			return false;
+			
+		}
+		
+		takeEvent(eventIndex);
+		
+		if(journal != null) {
+			
+			journal.logRemoveEvent(event.getId());
+			scheduleAutosave();
+			
+		}
 		
-		return eventList.remove(event);
+		return true;
 		
 	}
 	
@@ -178,12 +587,13 @@ public abstract class FileIO {
 	 * @param newEventTitle The new event title
 	 * @return True if the event title was successfully edited
 	 */
-	public static boolean editEventTitle(Event event, String newEventTitle) {
+	public synchronized static boolean editEventTitle(Event event, String newEventTitle) {
 		
-		//Note that Event has no equals method, meaning that indexOf will look for the exact object in eventList
-		//This prevents weird stuff from happening when there's two events with equal properties, and the user edits one of them
+		finishReadingEvents();
 		
-		int eventIndex = eventList.indexOf(event);
+		//The event is looked up by its ID, but must be the exact object that has the ID
+		//This prevents weird stuff from happening when there's two events with equal properties, and the user edits one of them
+		int eventIndex = indexOfEvent(event);
 		
 		if(eventIndex == -1) {
 			
@@ -191,7 +601,15 @@ public abstract class FileIO {
 			
 		} else {
 			
-			eventList.get(eventIndex).setEventTitle(newEventTitle);
+			changeEventTitle(eventIndex, newEventTitle);
+			
+			if(journal != null) {
+				
+				journal.logEditEventTitle(event.getId(), newEventTitle);
+				scheduleAutosave();
+				
+			}
+			
 			return true;
 			
 		}
@@ -199,75 +617,379 @@ public abstract class FileIO {
 	}
 	
 	/**
-	 * Get all events saved to the file
-	 * @return A new <code>ArrayList</code> of <i>the <b>exact</b> Event objects</i> that are saved in the internal Event <code>ArrayList</code>
+	 * Marks an event as done
+	 * @param event The <i>exact</i> event object to mark as done
+	 * @param finishedDate The date that the event was finished on
+	 * @return True if the event object was found and marked as done
 	 */
-	public static ArrayList<Event> getEvents() {
+	public synchronized static boolean finishEvent(Event event, Date finishedDate) {
 		
-		ArrayList<Event> eventListCopy = new ArrayList<Event>();
-		for(int i = 0; i < eventList.size(); i++) {
+		finishReadingEvents();
+		
+		int eventIndex = indexOfEvent(event);
+		if(eventIndex == -1) {
 			
-			eventListCopy.add(eventList.get(i));
+			return false;
 			
 		}
 		
-		return eventListCopy;
+		changeFinishedDate(eventIndex, finishedDate);
+		
+		if(journal != null) {
+			
+			journal.logFinishEvent(event.getId(), finishedDate);
+			scheduleAutosave();
+			
+		}
+		
+		return true;
 		
 	}
 	
 	/**
-	 * Get the version of FileIO that last saved to this file<br>
-	 * @return The FileIO version that last edited this file
+	 * Unmarks an event as done
+	 * @param event The <i>exact</i> event object to unmark as done
+	 * @return True if the event object was found and unmarked as done
 	 */
-	public static String getOriginalFileVersion() {
+	public synchronized static boolean unfinishEvent(Event event) {
 		
-		return originalFileVersion;
+		finishReadingEvents();
+		
+		int eventIndex = indexOfEvent(event);
+		if(eventIndex == -1) {
+			
+			return false;
+			
+		}
+		
+		changeFinishedDate(eventIndex, null);
+		
+		if(journal != null) {
+			
+			journal.logUnfinishEvent(event.getId());
+			scheduleAutosave();
+			
+		}
+		
+		return true;
 		
 	}
 	
 	/**
-	 * Get whether or not the program is using dark mode<br>
-	 * Setting added in FileIO Version 1.0
-	 * @return True if program is using dark mode
+	 * Swaps the positions of two events. Events that are shown on the same day are displayed in the order of their positions.
+	 * @param event1 The <i>exact</i> event object of one event
+	 * @param event2 The <i>exact</i> event object of the other event
+	 * @return True if both event objects were found and swapped
 	 */
-	public static boolean getUseDarkMode() {
+	public synchronized static boolean swapEvents(Event event1, Event event2) {
 		
-		return usesDarkMode;
+		finishReadingEvents();
+		
+		int eventIndex1 = indexOfEvent(event1);
+		int eventIndex2 = indexOfEvent(event2);
+		if(eventIndex1 == -1 || eventIndex2 == -1) {
+			
+			return false;
+			
+		}
+		
+		exchangeEvents(eventIndex1, eventIndex2);
+		
+		if(journal != null) {
+			
+			journal.logSwapEvents(event1.getId(), event2.getId());
+			scheduleAutosave();
+			
+		}
+		
+		return true;
 		
 	}
 	
 	/**
-	 * Set whether or not the program should use dark mode<br>
-	 * Setting added in FileIO Version 1.0
-	 * @param usesDarkMode True if the program should use dark mode
+	 * Get all events saved to the file, except for the events in archive segments that haven't been restored
+	 * @return A new <code>ArrayList</code> of <i>the <b>exact</b> Event objects</i> that are saved in the internal Event <code>ArrayList</code>
 	 */
-	public static void setUseDarkMode(boolean usesDarkMode) {
+	public synchronized static ArrayList<Event> getEvents() {
 		
-		FileIO.usesDarkMode = usesDarkMode;
+		finishReadingEvents();
+		
+		ArrayList<Event> eventListCopy = new ArrayList<Event>(eventList.size() - removedEventCount);
+		for(int i = 0; i < eventList.size(); i++) {
+			
+			if(eventList.get(i) != null) {
+				
+				eventListCopy.add(eventList.get(i));
+				
+			}
+			
+		}
+		
+		return eventListCopy;
 		
 	}
 	
 	/**
-	 * Get the amount of time that the user needs to press down on an event in order to mark it as done<br>
-	 * Setting added in FileIO Version 1.1
-	 * @return The amount of time user needs to press down
+	 * Get the events that are shown on a date (see <code>Event.isShownOn</code>), in the order that they are saved in<br>
+	 * Unlike <code>getEvents()</code>, this doesn't read the events of an event store that aren't shown on the date, and it doesn't wait for events that are still being decoded if they can't be shown on the date.<br>
+	 * Archive segments whose events may be shown on the date are restored first.<br>
+	 * The events of the last <code>DAY_VIEW_CACHE_SIZE</code> dates are kept, so getting them again only copies them.
+	 * @param date The date
+	 * @return A new <code>ArrayList</code> of <i>the <b>exact</b> Event objects</i> that are shown on the date
 	 */
-	public static int getLongPressMilliseconds() {
-
-		return longPressMilliseconds;
-
+	public synchronized static ArrayList<Event> getEventsShownOn(Date date) {
+		
+		ArrayList<Event> shownEvents = new ArrayList<Event>();
+		
+		//Restore the archive segments whose events may be shown on the date
+		restoreArchiveSegmentsShownBetween(date.toEpochDay(), date.toEpochDay());
+		
+		if(eventChunks != null && pendingJournalRecords.isEmpty()) {
+			
+			//The events are still being decoded, but the events of the chunks that may be shown on the date won't change, so they can be used without waiting for the rest
+			int epochDay = date.toEpochDay();
+			for(int i = 0; i < eventChunks.size(); i++) {
+				
+				if(eventChunks.get(i).mayBeShownOn(epochDay)) {
+					
+					for(Event event : joinEventChunk(eventChunkTasks.get(i))) {
+						
+						if(event.isShownOn(date)) {
+							
+							shownEvents.add(event);
+							
+						}
+						
+					}
+					
+				}
+				
+			}
+			
+			return shownEvents;
+			
+		}
+		
+		finishReadingEvents();
+		
+		//The cached list is copied, since the caller may change it
+		return new ArrayList<Event>(getCachedEventsShownOn(date.toEpochDay()));
+		
 	}
-
+	
 	/**
-	 * Set the amount of time that the user needs to press down on an event in order to mark it as done<br>
-	 * Setting added in FileIO Version 1.1
-	 * @param longPressSeconds The amount of time user needs to press down
+	 * Finds the events that are shown on a date ahead of time, so that <code>getEventsShownOn</code> only copies them if the date is looked at soon<br>
+	 * Unlike <code>getEventsShownOn</code>, this never restores archive segments, which would bring back the events of days that may never be looked at. 
+	 * Nothing is found if the date needs a segment to be restored, or if the events are still being decoded.
+	 * @param date The date
 	 */
-	public static void setLongPressMilliseconds(int longPressSeconds) {
-
-		FileIO.longPressMilliseconds = longPressSeconds;
-
-	}
+	public synchronized static void prefetchEventsShownOn(Date date) {
+		
+		int epochDay = date.toEpochDay();
+		
+		if(eventChunks != null) {
+			
+			return;
+			
+		}
+		
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			if(!segment.isRestored() && segment.mayBeShownOn(epochDay)) {
+				
+				return;
+				
+			}
+			
+		}
+		
+		getCachedEventsShownOn(epochDay);
+		
+	}
+	
+	/**
+	 * Get the events that are shown on any date in a range of dates (see <code>Event.isShownOn</code>), in the order that they are saved in<br>
+	 * Archive segments whose events may be shown on the dates are restored first.
+	 * @param firstDate The first date of the range
+	 * @param lastDate The last date of the range
+	 * @return A new <code>ArrayList</code> of <i>the <b>exact</b> Event objects</i> that are shown on the dates
+	 */
+	public synchronized static ArrayList<Event> getEventsShownBetween(Date firstDate, Date lastDate) {
+		
+		finishReadingEvents();
+		restoreArchiveSegmentsShownBetween(firstDate.toEpochDay(), lastDate.toEpochDay());
+		
+		//Only the events that are found are read from an event store
+		int[] indices = getEventColumns().findShownBetween(firstDate.toEpochDay(), lastDate.toEpochDay());
+		ArrayList<Event> shownEvents = new ArrayList<Event>(indices.length);
+		for(int index : indices) {
+			
+			shownEvents.add(eventList.get(index));
+			
+		}
+		
+		return shownEvents;
+		
+	}
+	
+	/**
+	 * Count the events that are overdue on a date (see <code>Event.isOverdue</code>), without reading the events of an event store<br>
+	 * Archived events are finished, so they are never overdue.
+	 * @param date The date, which is usually today's date
+	 * @return The number of overdue events
+	 */
+	public synchronized static int countOverdueEvents(Date date) {
+		
+		finishReadingEvents();
+		
+		return getEventColumns().countOverdue(date.toEpochDay());
+		
+	}
+	
+	/**
+	 * Search for events by the words in their titles (see <code>EventSearchIndex</code>), except for the events in archive segments that haven't been restored<br>
+	 * The titles are indexed in the background once the events have been read, and the index is kept up to date after that, so searches don't go through every event. 
+	 * If the index isn't ready yet, this waits for it without keeping the events from being shown or changed in the meantime.
+	 * @param query The words to search for. The last word also matches words that begin with it.
+	 * @param maxResults The greatest number of events to find
+	 * @return A new <code>ArrayList</code> of <i>the <b>exact</b> Event objects</i> that were found, best match first
+	 */
+	public static ArrayList<Event> searchEvents(String query, int maxResults) {
+		
+		while(true) {
+			
+			ForkJoinTask<?> indexTask;
+			
+			synchronized(FileIO.class) {
+				
+				finishReadingEvents();
+				
+				if(eventSearchIndex != null) {
+					
+					ArrayList<Event> foundEvents = new ArrayList<Event>();
+					for(long id : eventSearchIndex.search(query, maxResults)) {
+						
+						foundEvents.add(findEvent(id));
+						
+					}
+					
+					return foundEvents;
+					
+				}
+				
+				startBuildingSearchIndex();
+				indexTask = searchIndexTask;
+				
+			}
+			
+			//If the events were read again in the meantime, the index of the new events is waited for next
+			indexTask.join();
+			
+		}
+		
+	}
+	
+	/**
+	 * Write every event, except for the events in archive segments that haven't been restored, as text<br>
+	 * Each event is a line of its begin date, end date, finished date (empty if it isn't finished), and title, separated by tabs. The dates use the current date format.
+	 * @param output Where the text is written to
+	 * @throws IOException If the text cannot be written
+	 */
+	public synchronized static void exportEvents(Appendable output) throws IOException {
+		
+		finishReadingEvents();
+		
+		EventColumns columns = getEventColumns();
+		StringBuilder line = new StringBuilder();
+		for(int i = 0; i < columns.size(); i++) {
+			
+			if(columns.isEmpty(i)) {
+				
+				continue;
+				
+			}
+			
+			line.setLength(0);
+			Date.ofEpochDay(columns.getBeginEpochDay(i)).appendTo(line, dateFormat).append('\t');
+			Date.ofEpochDay(columns.getEndEpochDay(i)).appendTo(line, dateFormat).append('\t');
+			if(columns.getFinishedEpochDay(i) != MappedEventStore.NOT_FINISHED) {
+				
+				Date.ofEpochDay(columns.getFinishedEpochDay(i)).appendTo(line, dateFormat);
+				
+			}
+			line.append('\t').append(columns.getEventTitle(i)).append('\n');
+			output.append(line);
+			
+		}
+		
+	}
+	
+	/**
+	 * Get the version of FileIO that last saved to this file<br>
+	 * @return The FileIO version that last edited this file
+	 */
+	public static String getOriginalFileVersion() {
+		
+		return originalFileVersion;
+		
+	}
+	
+	/**
+	 * Get whether part of the data file couldn't be read because it was damaged<br>
+	 * The events that could be read are still used, and the damaged file was copied aside with <code>DAMAGED_SUFFIX</code>, since the next save replaces it
+	 * @return True if the data file that was read last was damaged
+	 */
+	public synchronized static boolean isDataFileDamaged() {
+		
+		return isDataFileDamaged;
+		
+	}
+	
+	/**
+	 * Get whether or not the program is using dark mode<br>
+	 * Setting added in FileIO Version 1.0
+	 * @return True if program is using dark mode
+	 */
+	public static boolean getUseDarkMode() {
+		
+		return usesDarkMode;
+		
+	}
+	
+	/**
+	 * Set whether or not the program should use dark mode<br>
+	 * Setting added in FileIO Version 1.0
+	 * @param usesDarkMode True if the program should use dark mode
+	 */
+	public synchronized static void setUseDarkMode(boolean usesDarkMode) {
+		
+		FileIO.usesDarkMode = usesDarkMode;
+		logSetting(Journal.SET_DARK_MODE, usesDarkMode);
+		
+	}
+	
+	/**
+	 * Get the amount of time that the user needs to press down on an event in order to mark it as done<br>
+	 * Setting added in FileIO Version 1.1
+	 * @return The amount of time user needs to press down
+	 */
+	public static int getLongPressMilliseconds() {
+
+		return longPressMilliseconds;
+
+	}
+
+	/**
+	 * Set the amount of time that the user needs to press down on an event in order to mark it as done<br>
+	 * Setting added in FileIO Version 1.1
+	 * @param longPressSeconds The amount of time user needs to press down
+	 */
+	public synchronized static void setLongPressMilliseconds(int longPressSeconds) {
+
+		FileIO.longPressMilliseconds = longPressSeconds;
+		logSetting(Journal.SET_LONG_PRESS_MILLISECONDS, longPressSeconds);
+
+	}
 
 	/**
 	 * Get the light mode finished event color<br>
@@ -285,9 +1007,10 @@ public abstract class FileIO {
 	 * Setting added in FileIO Version 1.1
 	 * @param lightFinishedEventColorRGB The RGB values of the color of events when they are marked as done in light mode
 	 */
-	public static void setLightFinishedEventColorRGB(int[] lightFinishedEventColorRGB) {
+	public synchronized static void setLightFinishedEventColorRGB(int[] lightFinishedEventColorRGB) {
 
 		FileIO.lightFinishedEventColorRGB = new int[] {lightFinishedEventColorRGB[0], lightFinishedEventColorRGB[1], lightFinishedEventColorRGB[2]};
+		logSetting(Journal.SET_LIGHT_FINISHED_COLOR, lightFinishedEventColorRGB);
 
 	}
 
@@ -307,9 +1030,10 @@ public abstract class FileIO {
 	 * Setting added in FileIO Version 1.1
 	 * @param darkFinishedEventColorRGB The RGB values of the color of events when they are marked as done in dark mode
 	 */
-	public static void setDarkFinishedEventColorRGB(int[] darkFinishedEventColorRGB) {
+	public synchronized static void setDarkFinishedEventColorRGB(int[] darkFinishedEventColorRGB) {
 
 		FileIO.darkFinishedEventColorRGB = darkFinishedEventColorRGB;
+		logSetting(Journal.SET_DARK_FINISHED_COLOR, darkFinishedEventColorRGB);
 
 	}
 
@@ -329,9 +1053,10 @@ public abstract class FileIO {
 	 * Setting added in FileIO Version 1.2
 	 * @param lightUnfinishedLateEventColorRGB The RGB values of the color of events when they are overdue in light mode
 	 */
-	public static void setLightOverdueEventColorRGB(int[] lightUnfinishedLateEventColorRGB) {
+	public synchronized static void setLightOverdueEventColorRGB(int[] lightUnfinishedLateEventColorRGB) {
 
 		FileIO.lightOverdueEventColorRGB = lightUnfinishedLateEventColorRGB;
+		logSetting(Journal.SET_LIGHT_OVERDUE_COLOR, lightUnfinishedLateEventColorRGB);
 
 	}
 
@@ -351,9 +1076,10 @@ public abstract class FileIO {
 	 * Setting added in FileIO Version 1.2
 	 * @param darkUnfinishedLateEventColorRGB The RGB values of the color of events when they are overdue in dark mode
 	 */
-	public static void setDarkOverdueEventColorRGB(int[] darkUnfinishedLateEventColorRGB) {
+	public synchronized static void setDarkOverdueEventColorRGB(int[] darkUnfinishedLateEventColorRGB) {
 
 		FileIO.darkOverdueEventColorRGB = darkUnfinishedLateEventColorRGB;
+		logSetting(Journal.SET_DARK_OVERDUE_COLOR, darkUnfinishedLateEventColorRGB);
 
 	}
 
@@ -373,63 +1099,2046 @@ public abstract class FileIO {
 	 * Version 1.1
 	 * @param dateFormat The date format
 	 */
-	public static void setDateFormat(DateFormat dateFormat) {
+	public synchronized static void setDateFormat(DateFormat dateFormat) {
 	
 		FileIO.dateFormat = dateFormat;
+		logSetting(Journal.SET_DATE_FORMAT, dateFormat.ordinal());
 	
 	}
 
+	/**
+	 * Get the number of days after an event is finished before it is moved into the archive<br>
+	 * Setting added in FileIO Version 2.3
+	 * @return The number of days
+	 */
+	public static int getArchiveAgeDays() {
+		
+		return archiveAgeDays;
+		
+	}
+	
+	/**
+	 * Set the number of days after an event is finished before it is moved into the archive<br>
+	 * Setting added in FileIO Version 2.3
+	 * @param archiveAgeDays The number of days
+	 */
+	public synchronized static void setArchiveAgeDays(int archiveAgeDays) {
+		
+		FileIO.archiveAgeDays = archiveAgeDays;
+		logSetting(Journal.SET_ARCHIVE_AGE_DAYS, archiveAgeDays);
+		
+	}
+	
+	/**
+	 * Get whether or not the events in the data file are compressed<br>
+	 * Setting added in FileIO Version 2.5
+	 * @return True if the events are compressed
+	 */
+	public static boolean getCompressesEvents() {
+		
+		return compressesEvents;
+		
+	}
+	
+	/**
+	 * Set whether or not the events in the data file are compressed. Compressed files are smaller, but take longer to read and write.<br>
+	 * This takes effect the next time that the data file is written. Events in an event store are never compressed.<br>
+	 * Setting added in FileIO Version 2.5
+	 * @param compressesEvents True if the events should be compressed
+	 */
+	public synchronized static void setCompressesEvents(boolean compressesEvents) {
+		
+		FileIO.compressesEvents = compressesEvents;
+		logSetting(Journal.SET_COMPRESSES_EVENTS, compressesEvents);
+		
+	}
+	
 	/**
 	 * Sets the default settings.
 	 */
-	public static void setDefaultSettings() {
+	public synchronized static void setDefaultSettings() {
 		
-		longPressMilliseconds = 600;
-		lightFinishedEventColorRGB = new int[] {255, 196, 0};
-		darkFinishedEventColorRGB = new int[] {128, 98, 0};
-		lightOverdueEventColorRGB = new int[] {252, 81, 81};
-		darkOverdueEventColorRGB = new int[] {126, 41, 41};
+		setLongPressMilliseconds(600);
+		setLightFinishedEventColorRGB(new int[] {255, 196, 0});
+		setDarkFinishedEventColorRGB(new int[] {128, 98, 0});
+		setLightOverdueEventColorRGB(new int[] {252, 81, 81});
+		setDarkOverdueEventColorRGB(new int[] {126, 41, 41});
+		setArchiveAgeDays(180);
+		setCompressesEvents(false);
 		
 	}
 	
-	//Reads old file versions, and fills in the default for any new values
-	@SuppressWarnings("unchecked")
-	private static void readOldFileVersion(String version, ObjectInputStream input) throws IOException, ClassNotFoundException {
+	/**
+	 * Rewrites a data file in the format of the current FileIO version<br>
+	 * The file is read by the reader of its version and upgraded, and then written straight to a temporary file that replaces it, so the file's contents are never held in memory, only its events.
+	 * Events are always written into the new file itself, rather than into an event store.<br>
+	 * This uses FileIO's fields, so it must not be used while the program is running. If the file is damaged, it is copied aside first, and every event that could be read is migrated.
+	 * @param file The data file
+	 * @return The FileIO version that the file was written by
+	 * @throws IOException If the file cannot be read or written
+	 * @throws ClassNotFoundException If the file was written with Java object serialization, and contains an unknown class
+	 */
+	public synchronized static String migrateFile(File file) throws IOException, ClassNotFoundException {
 		
-		switch(version) {
+		originalFileVersion = null;
+		eventChunks = null;
+		eventChunkTasks = null;
+		pendingJournalRecords.clear();
 		
-		case "1.0":
-			setDefaultValues();
-			usesDarkMode = input.readBoolean();
-			eventList = (ArrayList<Event>) input.readObject();
-			break;
-		case "1.1":
-			setDefaultValues();
-			usesDarkMode = input.readBoolean();
-			eventList = (ArrayList<Event>) input.readObject();
-			longPressMilliseconds = input.readInt();
-			lightFinishedEventColorRGB = (int[]) input.readObject();
-			darkFinishedEventColorRGB = (int[]) input.readObject();
-			dateFormat = (DateFormat) input.readObject();
-			break;
-		default:
-			throw new UnsupportedClassVersionError();
+		readData(file);
+		finishReadingEvents();
+		compactEventList();
+		
+		ArrayList<ArchiveSegment> unrestoredArchiveSegments = new ArrayList<ArchiveSegment>();
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			if(!segment.isRestored()) {
+				
+				unrestoredArchiveSegments.add(segment);
+				
+			}
+			
+		}
+		
+		File tempFile = new File(file.getPath() + ".tmp");
+		FileOutputStream fileOutput = new FileOutputStream(tempFile);
+		try {
+			
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+			writeData(output, eventList, unrestoredArchiveSegments, null);
+			output.flush();
+			fileOutput.getFD().sync();
+			
+		} finally {
+			
+			fileOutput.close();
 			
 		}
+		replaceFile(tempFile, file);
+		
+		return originalFileVersion;
 		
 	}
 	
-	//Is like setDefaultSettings(), but also sets the event list
-	private static void setDefaultValues() {
+	//Reads a data file into the private static fields with the reader of the file's version, and then upgrades the fields to the current version
+	//Event store and archive segment files are looked for in the file's directory
+	//The fields start with the default values, so that they are all set even if the file can't be fully read
+	private static void readData(File file) throws IOException, ClassNotFoundException {
 		
-		usesDarkMode = false;
-		eventList = new ArrayList<Event>();
-		longPressMilliseconds = 600;
-		lightFinishedEventColorRGB = new int[] {255, 196, 0};
-		darkFinishedEventColorRGB = new int[] {128, 98, 0};
-		lightOverdueEventColorRGB = new int[] {252, 81, 81};
-		darkOverdueEventColorRGB = new int[] {126, 41, 41};
-		dateFormat = DateFormat.MDY;
+		dataFile = file;
+		isDataFileDamaged = false;
+		setDefaultValues();
+		
+		BufferedInputStream bufferedInput = new BufferedInputStream(new FileInputStream(file));
+		
+		try {
+			
+			//Files written before FileIO version 2.0 are Java object streams, which always begin with the same two bytes
+			bufferedInput.mark(2);
+			boolean isObjectStream = bufferedInput.read() == OBJECT_STREAM_MAGIC_HIGH_BYTE && bufferedInput.read() == OBJECT_STREAM_MAGIC_LOW_BYTE;
+			bufferedInput.reset();
+			
+			DataInput input = isObjectStream ? new ObjectInputStream(bufferedInput) : new DataInputStream(bufferedInput);
+			originalFileVersion = input.readUTF();
+			
+			VersionReader reader = versionReaders.get(originalFileVersion);
+			if(reader == null) {
+				
+				//The file was written by a newer FileIO
+				throw new UnsupportedClassVersionError();
+				
+			}
+			
+			reader.read(input, file.getAbsoluteFile().getParentFile());
+			
+		} finally {
+			
+			bufferedInput.close();
+			
+			//Even if the file couldn't be fully read, the events that were read need IDs before the journal is replayed. Events in chunks are given theirs once every chunk is decoded.
+			if(eventChunks == null) {
+				
+				identifyEvents();
+				
+			}
+			
+		}
+		
+		for(String version = originalFileVersion; !version.equals(IO_VERSION); version = nextVersions.get(version)) {
+			
+			versionUpgraders.get(version).run();
+			
+		}
+		
+	}
+	
+	//Writes a data file. If eventStoreFile isn't null, the data file points to it instead of containing the events.
+	private static void writeData(DataOutputStream output, List<Event> events, List<ArchiveSegment> segments, File eventStoreFile) throws IOException {
+		
+		output.writeUTF(IO_VERSION);
+		
+		//The settings are written in a header before the events, so that they can be read without reading the events
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		DataOutputStream header = new DataOutputStream(headerBytes);
+		header.writeBoolean(usesDarkMode);
+		EventCodec.writeVarInt(header, longPressMilliseconds);
+		writeRGB(header, lightFinishedEventColorRGB);
+		writeRGB(header, darkFinishedEventColorRGB);
+		writeRGB(header, lightOverdueEventColorRGB);
+		writeRGB(header, darkOverdueEventColorRGB);
+		header.writeByte(dateFormat.ordinal());
+		header.writeLong(generation);
+		header.writeLong(journalOffset);
+		EventCodec.writeVarInt(header, archiveAgeDays);
+		header.writeBoolean(compressesEvents);
+		header.writeLong(nextEventId);
+		
+		EventCodec.writeVarInt(header, segments.size());
+		for(ArchiveSegment segment : segments) {
+			
+			segment.writeIndexEntry(header);
+			
+		}
+		
+		//The compression block has whether the chunks are compressed and the dictionary that they are compressed with
+		//It is separate from the header, so that the chunks can still be read if the header is damaged
+		byte[] dictionary = compressesEvents && eventStoreFile == null ? EventCodec.buildDictionary(events) : null;
+		ByteArrayOutputStream compressionBytes = new ByteArrayOutputStream();
+		DataOutputStream compression = new DataOutputStream(compressionBytes);
+		compression.writeBoolean(dictionary != null);
+		if(dictionary != null) {
+			
+			compression.write(dictionary);
+			
+		}
+		
+		if(eventStoreFile != null) {
+			
+			header.writeByte(MAPPED_EVENT_STORAGE);
+			header.writeUTF(eventStoreFile.getName());
+			writeCheckedBlock(output, headerBytes.toByteArray());
+			writeCheckedBlock(output, compressionBytes.toByteArray());
+			
+		} else {
+			
+			header.writeByte(INLINE_EVENT_STORAGE);
+			EventCodec.writeVarInt(header, (events.size() + EVENT_CHUNK_SIZE - 1) / EVENT_CHUNK_SIZE);
+			writeCheckedBlock(output, headerBytes.toByteArray());
+			writeCheckedBlock(output, compressionBytes.toByteArray());
+			
+			for(int i = 0; i < events.size(); i += EVENT_CHUNK_SIZE) {
+				
+				EventCodec.writeEventChunk(output, events.subList(i, Math.min(i + EVENT_CHUNK_SIZE, events.size())), dictionary);
+				
+			}
+			
+		}
+		
+	}
+	
+	//Writes a block of the data file: its length (varint), its bytes, and their CRC-32 checksum (int)
+	static void writeCheckedBlock(DataOutputStream output, byte[] block) throws IOException {
+		
+		EventCodec.writeVarInt(output, block.length);
+		output.write(block);
+		output.writeInt(checksum(block));
+		
+	}
+	
+	//Reads a block that was written by writeCheckedBlock
+	//Returns null if the block doesn't match its checksum
+	private static DataInputStream readCheckedBlock(DataInput input) throws IOException {
+		
+		int length = EventCodec.readVarInt(input);
+		
+		if(length < 0) {
+			
+			throw new StreamCorruptedException("Invalid block length");
+			
+		}
+		
+		byte[] block = new byte[length];
+		input.readFully(block);
+		
+		if(input.readInt() != checksum(block)) {
+			
+			return null;
+			
+		}
+		
+		return new DataInputStream(new ByteArrayInputStream(block));
+		
+	}
+	
+	static int checksum(byte[] data) {
+		
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+		
+	}
+	
+	/**
+	 * Reads the properties of one version of the data file into the private static fields
+	 */
+	private interface VersionReader {
+		
+		/**
+		 * @param input The data file, after its version. For versions before 2.0, this is an <code>ObjectInput</code>
+		 * @param directory The directory that event store and archive segment files are in
+		 */
+		void read(DataInput input, File directory) throws IOException, ClassNotFoundException;
+		
+	}
+	
+	/**The reader of every version of the data file that can still be read, by version*/
+	private static final HashMap<String, VersionReader> versionReaders = new HashMap<String, VersionReader>();
+	/**The upgrader of every old version, which fills in the properties that the next version added, by version*/
+	private static final HashMap<String, Runnable> versionUpgraders = new HashMap<String, Runnable>();
+	/**The version that comes after every old version*/
+	private static final HashMap<String, String> nextVersions = new HashMap<String, String>();
+	
+	static {
+		
+		registerVersion("1.0", (input, directory) -> {
+			
+			usesDarkMode = input.readBoolean();
+			eventList = readObject(input);
+			
+		}, "1.1", () -> {
+			
+			longPressMilliseconds = 600;
+			lightFinishedEventColorRGB = new int[] {255, 196, 0};
+			darkFinishedEventColorRGB = new int[] {128, 98, 0};
+			dateFormat = DateFormat.MDY;
+			
+		});
+		
+		registerVersion("1.1", (input, directory) -> {
+			
+			usesDarkMode = input.readBoolean();
+			eventList = readObject(input);
+			longPressMilliseconds = input.readInt();
+			lightFinishedEventColorRGB = readObject(input);
+			darkFinishedEventColorRGB = readObject(input);
+			dateFormat = readObject(input);
+			
+		}, "1.2", () -> {
+			
+			lightOverdueEventColorRGB = new int[] {252, 81, 81};
+			darkOverdueEventColorRGB = new int[] {126, 41, 41};
+			
+		});
+		
+		registerVersion("1.2", (input, directory) -> {
+			
+			usesDarkMode = input.readBoolean();
+			eventList = readObject(input);
+			longPressMilliseconds = input.readInt();
+			lightFinishedEventColorRGB = readObject(input);
+			darkFinishedEventColorRGB = readObject(input);
+			lightOverdueEventColorRGB = readObject(input);
+			darkOverdueEventColorRGB = readObject(input);
+			dateFormat = readObject(input);
+			
+		}, "1.3", () -> {
+			
+			generation = 0;
+			
+		});
+		
+		registerVersion("1.3", (input, directory) -> {
+			
+			usesDarkMode = input.readBoolean();
+			eventList = readObject(input);
+			longPressMilliseconds = input.readInt();
+			lightFinishedEventColorRGB = readObject(input);
+			darkFinishedEventColorRGB = readObject(input);
+			lightOverdueEventColorRGB = readObject(input);
+			darkOverdueEventColorRGB = readObject(input);
+			dateFormat = readObject(input);
+			generation = input.readLong();
+			
+		}, "1.4", () -> {
+			
+			//Version 1.3 data files contain none of the records of their journal
+			journalOffset = Journal.VERSION_1_HEADER_LENGTH;
+			
+		});
+		
+		registerVersion("1.4", (input, directory) -> {
+			
+			usesDarkMode = input.readBoolean();
+			eventList = readObject(input);
+			longPressMilliseconds = input.readInt();
+			lightFinishedEventColorRGB = readObject(input);
+			darkFinishedEventColorRGB = readObject(input);
+			lightOverdueEventColorRGB = readObject(input);
+			darkOverdueEventColorRGB = readObject(input);
+			dateFormat = readObject(input);
+			generation = input.readLong();
+			journalOffset = input.readLong();
+			
+		}, "2.0", () -> {});
+		
+		registerVersion("2.0", (input, directory) -> {
+			
+			readBinarySettings(input);
+			eventList = EventCodec.readEventsWithoutIds(input);
+			
+		}, "2.1", () -> {});
+		
+		registerVersion("2.1", (input, directory) -> {
+			
+			readBinarySettings(input);
+			if(input.readByte() == MAPPED_EVENT_STORAGE) {
+				
+				eventList = new MappedEventList(new MappedEventStore(new File(directory, input.readUTF())));
+				
+			} else {
+				
+				eventList = EventCodec.readEventsWithoutIds(input);
+				
+			}
+			
+		}, "2.2", () -> {});
+		
+		registerVersion("2.2", (input, directory) -> {
+			
+			readBinarySettings(input);
+			readEventStorage(input, directory);
+			
+		}, "2.3", () -> {
+			
+			archiveAgeDays = 180;
+			archiveSegments = new ArrayList<ArchiveSegment>();
+			
+		});
+		
+		registerVersion("2.3", (input, directory) -> {
+			
+			readBinarySettings(input);
+			archiveAgeDays = EventCodec.readVarInt(input);
+			
+			//Only the index of the archive is read. The segments are read when they are needed.
+			int archiveSegmentCount = EventCodec.readVarInt(input);
+			archiveSegments = new ArrayList<ArchiveSegment>(archiveSegmentCount);
+			for(int i = 0; i < archiveSegmentCount; i++) {
+				
+				archiveSegments.add(ArchiveSegment.readOldIndexEntry(input, directory));
+				
+			}
+			
+			readEventStorage(input, directory);
+			
+		}, "2.4", () -> {});
+		
+		registerVersion("2.4", (input, directory) -> {
+			
+			DataInputStream header = readCheckedBlock(input);
+			
+			if(header == null) {
+				
+				//The settings and the archive index are lost, so the default values are kept, but the chunks of events after the header can still be read
+				quarantineDataFile();
+				findArchiveSegments(directory, false);
+				beginDecodingEvents(readEventChunks(input, -1, null, false));
+				return;
+				
+			}
+			
+			readBinarySettings(header);
+			archiveAgeDays = EventCodec.readVarInt(header);
+			
+			int archiveSegmentCount = EventCodec.readVarInt(header);
+			archiveSegments = new ArrayList<ArchiveSegment>(archiveSegmentCount);
+			for(int i = 0; i < archiveSegmentCount; i++) {
+				
+				archiveSegments.add(ArchiveSegment.readOldIndexEntry(header, directory));
+				
+			}
+			
+			if(header.readByte() == MAPPED_EVENT_STORAGE) {
+				
+				eventList = new MappedEventList(new MappedEventStore(new File(directory, header.readUTF())));
+				
+			} else {
+				
+				//Each chunk is checked against its checksum as it is decoded
+				beginDecodingEvents(readEventChunks(input, EventCodec.readVarInt(header), null, false));
+				
+			}
+			
+		}, "2.5", () -> {
+			
+			compressesEvents = false;
+			
+		});
+		
+		registerVersion("2.5", (input, directory) -> {
+			
+			DataInputStream header = readCheckedBlock(input);
+			DataInputStream compression = readCheckedBlock(input);
+			
+			//The chunks can't be decompressed without the dictionary
+			byte[] dictionary = null;
+			if(compression == null) {
+				
+				quarantineDataFile();
+				
+			} else if(compression.readBoolean()) {
+				
+				dictionary = new byte[compression.available()];
+				compression.readFully(dictionary);
+				
+			}
+			
+			if(header == null) {
+				
+				//The settings and the archive index are lost, so the default values are kept, but the chunks of events after the header can still be read
+				quarantineDataFile();
+				findArchiveSegments(directory, false);
+				beginDecodingEvents(readEventChunks(input, -1, dictionary, false));
+				return;
+				
+			}
+			
+			readBinarySettings(header);
+			archiveAgeDays = EventCodec.readVarInt(header);
+			compressesEvents = header.readBoolean();
+			
+			int archiveSegmentCount = EventCodec.readVarInt(header);
+			archiveSegments = new ArrayList<ArchiveSegment>(archiveSegmentCount);
+			for(int i = 0; i < archiveSegmentCount; i++) {
+				
+				archiveSegments.add(ArchiveSegment.readOldIndexEntry(header, directory));
+				
+			}
+			
+			if(header.readByte() == MAPPED_EVENT_STORAGE) {
+				
+				eventList = new MappedEventList(new MappedEventStore(new File(directory, header.readUTF())));
+				
+			} else {
+				
+				//Each chunk is checked against its checksum, and decompressed, as it is decoded
+				beginDecodingEvents(readEventChunks(input, EventCodec.readVarInt(header), dictionary, false));
+				
+			}
+			
+		}, "2.6", () -> {
+			
+			//The events that were read without IDs are given them as soon as every event is read, and nextEventId is moved past them (see identifyEvents)
+			
+		});
+		
+		registerVersion("2.6", (input, directory) -> {
+			
+			DataInputStream header = readCheckedBlock(input);
+			DataInputStream compression = readCheckedBlock(input);
+			
+			//The chunks can't be decompressed without the dictionary
+			byte[] dictionary = null;
+			if(compression == null) {
+				
+				quarantineDataFile();
+				
+			} else if(compression.readBoolean()) {
+				
+				dictionary = new byte[compression.available()];
+				compression.readFully(dictionary);
+				
+			}
+			
+			if(header == null) {
+				
+				//The settings and the archive index are lost, so the default values are kept, but the chunks of events after the header can still be read
+				//nextEventId is moved past the IDs of the events once they are read
+				quarantineDataFile();
+				findArchiveSegments(directory, true);
+				beginDecodingEvents(readEventChunks(input, -1, dictionary, true));
+				return;
+				
+			}
+			
+			readBinarySettings(header);
+			archiveAgeDays = EventCodec.readVarInt(header);
+			compressesEvents = header.readBoolean();
+			nextEventId = header.readLong();
+			
+			int archiveSegmentCount = EventCodec.readVarInt(header);
+			archiveSegments = new ArrayList<ArchiveSegment>(archiveSegmentCount);
+			for(int i = 0; i < archiveSegmentCount; i++) {
+				
+				archiveSegments.add(ArchiveSegment.readIndexEntry(header, directory));
+				
+			}
+			
+			if(header.readByte() == MAPPED_EVENT_STORAGE) {
+				
+				eventList = new MappedEventList(new MappedEventStore(new File(directory, header.readUTF())));
+				
+			} else {
+				
+				//Each chunk is checked against its checksum, and decompressed, as it is decoded
+				beginDecodingEvents(readEventChunks(input, EventCodec.readVarInt(header), dictionary, true));
+				
+			}
+			
+		}, null, null);
+		
+	}
+	
+	//Adds a version to the registry. The current version has no next version or upgrader.
+	private static void registerVersion(String version, VersionReader reader, String nextVersion, Runnable upgrader) {
+		
+		versionReaders.put(version, reader);
+		
+		if(nextVersion != null) {
+			
+			nextVersions.put(version, nextVersion);
+			versionUpgraders.put(version, upgrader);
+			
+		}
+		
+	}
+	
+	//Reads an object from the data file of a version before 2.0
+	@SuppressWarnings("unchecked")
+	private static <T> T readObject(DataInput input) throws IOException, ClassNotFoundException {
+		
+		return (T) ((ObjectInput) input).readObject();
+		
+	}
+	
+	//Reads the properties that every version since 2.0 begins with
+	private static void readBinarySettings(DataInput input) throws IOException {
+		
+		usesDarkMode = input.readBoolean();
+		longPressMilliseconds = EventCodec.readVarInt(input);
+		lightFinishedEventColorRGB = readRGB(input);
+		darkFinishedEventColorRGB = readRGB(input);
+		lightOverdueEventColorRGB = readRGB(input);
+		darkOverdueEventColorRGB = readRGB(input);
+		dateFormat = DateFormat.values()[input.readByte()];
+		generation = input.readLong();
+		journalOffset = input.readLong();
+		
+	}
+	
+	//Reads the events of versions since 2.2, which are either in an event store or in chunks
+	private static void readEventStorage(DataInput input, File directory) throws IOException {
+		
+		if(input.readByte() == MAPPED_EVENT_STORAGE) {
+			
+			//The events are only mapped into memory here. They are read when they are needed.
+			eventList = new MappedEventList(new MappedEventStore(new File(directory, input.readUTF())));
+			
+		} else {
+			
+			beginDecodingEvents(EventCodec.readEventChunks(input));
+			
+		}
+		
+	}
+	
+	//Reads chunkCount chunks of events that were compressed with dictionary (null if they weren't), or every chunk until the end of the file if chunkCount is -1
+	//hasEventIds is false for chunks that were written before FileIO version 2.6
+	//If the file ends early or a chunk can't be told apart from the next one, the chunks before it are kept and the file is copied aside
+	private static ArrayList<EventCodec.Chunk> readEventChunks(DataInput input, int chunkCount, byte[] dictionary, boolean hasEventIds) {
+		
+		ArrayList<EventCodec.Chunk> chunks = new ArrayList<EventCodec.Chunk>();
+		
+		try {
+			
+			while(chunkCount == -1 || chunks.size() < chunkCount) {
+				
+				chunks.add(EventCodec.readEventChunk(input, dictionary, hasEventIds));
+				
+			}
+			
+		} catch(EOFException e) {
+			
+			if(chunkCount != -1) {
+				
+				e.printStackTrace();
+				quarantineDataFile();
+				
+			}
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			quarantineDataFile();
+			
+		}
+		
+		return chunks;
+		
+	}
+	
+	//Is like setDefaultSettings(), but also sets the event list
+	private static void setDefaultValues() {
+		
+		usesDarkMode = false;
+		eventList = new ArrayList<Event>();
+		removedEventCount = 0;
+		eventIntervalIndex = null;
+		eventPositions = null;
+		eventColumns = null;
+		eventSearchIndex = null;
+		searchIndexTask = null;
+		searchIndexChanges = null;
+		dayViewCache = null;
+		longPressMilliseconds = 600;
+		lightFinishedEventColorRGB = new int[] {255, 196, 0};
+		darkFinishedEventColorRGB = new int[] {128, 98, 0};
+		lightOverdueEventColorRGB = new int[] {252, 81, 81};
+		darkOverdueEventColorRGB = new int[] {126, 41, 41};
+		dateFormat = DateFormat.MDY;
+		generation = 0;
+		journalOffset = 0;
+		archiveAgeDays = 180;
+		archiveSegments = new ArrayList<ArchiveSegment>();
+		compressesEvents = false;
+		nextEventId = 1;
+		
+	}
+	
+	//Replays the journal that belongs to the data file that was just read, and then opens it so that new changes can be appended to it
+	private static void openJournal() {
+		
+		journal = new Journal(JOURNAL_DIR);
+		
+		try {
+			
+			for(Journal.Record record : journal.replay(generation, journalOffset)) {
+				
+				if(isDataFileDamaged && record.refersToEventPosition()) {
+					
+					//Old changes to events refer to them by their positions, which don't match when events are missing. Changes by ID are still applied, and skip the events that are missing.
+					System.out.println("Skipped a journaled change to the events of the damaged data file");
+					
+				} else if(eventChunks != null && record.changesEvents()) {
+					
+					//The events that the record changes are still being decoded. The settings are applied right away, so that they can be used.
+					pendingJournalRecords.add(record);
+					
+				} else {
+					
+					applyJournalRecord(record);
+					
+				}
+				
+			}
+			
+			journal.open();
+			
+		} catch(IOException e) {
+			
+			//Without a journal, changes will only be saved when the data file is written
+			e.printStackTrace();
+			journal = null;
+			
+		}
+		
+	}
+	
+	//Starts decoding the chunks of events on the ForkJoin pool
+	//Once every chunk is decoded, the events are put together in the background, unless a method that needs them gets to it first
+	private static void beginDecodingEvents(ArrayList<EventCodec.Chunk> chunks) {
+		
+		ArrayList<ForkJoinTask<ArrayList<Event>>> tasks = new ArrayList<ForkJoinTask<ArrayList<Event>>>(chunks.size());
+		for(EventCodec.Chunk chunk : chunks) {
+			
+			tasks.add(ForkJoinPool.commonPool().submit(() -> chunk.decode()));
+			
+		}
+		
+		eventList = null;
+		eventChunks = chunks;
+		eventChunkTasks = tasks;
+		
+		ForkJoinPool.commonPool().execute(() -> {
+			
+			//Wait without holding onto FileIO's data, so that the events of a date can be shown in the meantime
+			for(ForkJoinTask<ArrayList<Event>> task : tasks) {
+				
+				task.quietlyJoin();
+				
+			}
+			
+			synchronized(FileIO.class) {
+				
+				//The file may have been read again since
+				if(eventChunkTasks == tasks) {
+					
+					finishReadingEvents();
+					
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	//Waits for every chunk of events to be decoded, puts them together, and then applies the changes from the journal that were waiting for them
+	//Must only be called while holding onto FileIO.class
+	private static void finishReadingEvents() {
+		
+		if(eventChunks == null) {
+			
+			return;
+			
+		}
+		
+		ArrayList<Event> events = new ArrayList<Event>();
+		for(ForkJoinTask<ArrayList<Event>> task : eventChunkTasks) {
+			
+			events.addAll(joinEventChunk(task));
+			
+		}
+		
+		eventList = events;
+		removedEventCount = 0;
+		eventIntervalIndex = null;
+		eventPositions = null;
+		eventColumns = null;
+		eventSearchIndex = null;
+		searchIndexTask = null;
+		searchIndexChanges = null;
+		dayViewCache = null;
+		eventChunks = null;
+		eventChunkTasks = null;
+		identifyEvents();
+		
+		int skippedRecordCount = 0;
+		for(Journal.Record record : pendingJournalRecords) {
+			
+			if(isDataFileDamaged && record.refersToEventPosition()) {
+				
+				//Old changes to events refer to them by their positions, which don't match when events are missing. Changes by ID are still applied, and skip the events that are missing.
+				skippedRecordCount++;
+				
+			} else {
+				
+				applyJournalRecord(record);
+				
+			}
+			
+		}
+		pendingJournalRecords.clear();
+		
+		if(skippedRecordCount > 0) {
+			
+			System.out.println("Skipped " + skippedRecordCount + " journaled changes to the events of the damaged data file");
+			
+		}
+		
+		//Every title was just decoded, so they are indexed right away for the first search. The titles of an event store are only read once something is searched for.
+		startBuildingSearchIndex();
+		
+	}
+	
+	//Waits for a chunk of events to be decoded
+	private static ArrayList<Event> joinEventChunk(ForkJoinTask<ArrayList<Event>> task) {
+		
+		try {
+			
+			return task.join();
+			
+		} catch(RuntimeException e) {
+			
+			//The chunk is damaged, so its events are left out
+			e.printStackTrace();
+			quarantineDataFile();
+			return new ArrayList<Event>();
+			
+		}
+		
+	}
+	
+	//Copies the data file that was read last, and its journal, aside before a save can replace them, so that the events that couldn't be read aren't lost for good
+	//Must only be called while holding onto FileIO.class
+	private static void quarantineDataFile() {
+		
+		if(isDataFileDamaged) {
+			
+			return;
+			
+		}
+		
+		isDataFileDamaged = true;
+		
+		try {
+			
+			File directory = dataFile.getAbsoluteFile().getParentFile();
+			File damagedFile = createUniqueFile(directory, dataFile.getName() + DAMAGED_SUFFIX);
+			Files.copy(dataFile.toPath(), damagedFile.toPath());
+			System.out.println("The data file is damaged. Every event that could be read was kept, and the file was copied to " + damagedFile.getPath());
+			
+			File journalFile = new File(JOURNAL_DIR);
+			if(dataFile.equals(new File(FILE_DIR)) && journalFile.exists()) {
+				
+				Files.copy(journalFile.toPath(), createUniqueFile(journalFile.getAbsoluteFile().getParentFile(), journalFile.getName() + DAMAGED_SUFFIX).toPath());
+				
+			}
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	//Finds the event with an ID in the event list; null if there is none
+	//Must only be called once every event has been read
+	private static Event findEvent(long id) {
+		
+		int eventIndex = findEventPosition(id);
+		
+		return eventIndex == -1 ? null : eventList.get(eventIndex);
+		
+	}
+	
+	//Finds the position in the event list of the exact Event object by its ID; -1 if it isn't in the event list
+	//Must only be called once every event has been read
+	private static int indexOfEvent(Event event) {
+		
+		int eventIndex = findEventPosition(event.getId());
+		
+		return eventIndex != -1 && eventList.get(eventIndex) == event ? eventIndex : -1;
+		
+	}
+	
+	//Finds the position in the event list of the event with an ID; -1 if there is none
+	//Must only be called once every event has been read
+	private static int findEventPosition(long id) {
+		
+		MappedEventList mappedEvents = eventList instanceof MappedEventList ? (MappedEventList) eventList : null;
+		
+		//The index is built the first time that it is needed. The records of an event store are left out, since they are found in the store by their IDs without being read.
+		if(eventPositions == null) {
+			
+			eventPositions = new HashMap<Long, Integer>();
+			for(int i = 0; i < eventList.size(); i++) {
+				
+				if((mappedEvents == null || mappedEvents.getRecordIndex(i) == -1) && eventList.get(i) != null) {
+					
+					eventPositions.put(eventList.get(i).getId(), i);
+					
+				}
+				
+			}
+			
+		}
+		
+		Integer eventIndex = eventPositions.get(id);
+		
+		if(eventIndex != null) {
+			
+			return eventIndex;
+			
+		}
+		
+		if(mappedEvents != null) {
+			
+			int recordIndex = mappedEvents.getStore().findRecord(id);
+			if(recordIndex != -1) {
+				
+				return mappedEvents.getRecordPosition(recordIndex);
+				
+			}
+			
+		}
+		
+		return -1;
+		
+	}
+	
+	//Removes the empty slots that removed events left in the event list, which changes the positions of the events
+	//The indices that use the positions are built again when they are needed
+	private static void compactEventList() {
+		
+		if(removedEventCount == 0) {
+			
+			return;
+			
+		}
+		
+		if(eventList instanceof MappedEventList) {
+			
+			((MappedEventList) eventList).removeEmptySlots();
+			
+		} else {
+			
+			eventList.removeIf((event) -> event == null);
+			
+		}
+		
+		removedEventCount = 0;
+		eventPositions = null;
+		eventColumns = null;
+		
+	}
+	
+	//Gets the columns of the events, laying them out the first time that they are needed
+	//Must only be called once every event has been read
+	private static EventColumns getEventColumns() {
+		
+		if(eventColumns == null) {
+			
+			eventColumns = new EventColumns(eventList);
+			
+		}
+		
+		return eventColumns;
+		
+	}
+	
+	//Puts an event that already has its ID at the end of the event list, and indexes it
+	private static void putEvent(Event event) {
+		
+		eventList.add(event);
+		
+		if(eventPositions != null) {
+			
+			eventPositions.put(event.getId(), eventList.size() - 1);
+			
+		}
+		
+		if(eventIntervalIndex != null) {
+			
+			eventIntervalIndex.add(event);
+			
+		}
+		
+		if(dayViewCache != null) {
+			
+			dayViewCache.invalidate(event.getBeginDate().toEpochDay(), event.getLatestShowingDate().toEpochDay());
+			
+		}
+		
+		if(eventColumns != null) {
+			
+			eventColumns.add(event);
+			
+		}
+		
+		indexEventTitle(event.getId(), null, event.getEventTitle());
+		
+	}
+	
+	//Removes the event at an index of the event list, and from the indices
+	//The event's slot is left empty, so that no other event moves. Once at least half of the slots are empty, they are removed all at once.
+	private static void takeEvent(int eventIndex) {
+		
+		Event event = eventList.set(eventIndex, null);
+		removedEventCount++;
+		noteChangedEvent(event);
+		
+		if(eventIntervalIndex != null) {
+			
+			eventIntervalIndex.remove(event);
+			
+		}
+		
+		if(dayViewCache != null) {
+			
+			dayViewCache.invalidate(event.getBeginDate().toEpochDay(), event.getLatestShowingDate().toEpochDay());
+			
+		}
+		
+		if(eventPositions != null) {
+			
+			eventPositions.remove(event.getId());
+			
+		}
+		
+		if(eventColumns != null) {
+			
+			eventColumns.remove(eventIndex);
+			
+		}
+		
+		indexEventTitle(event.getId(), event.getEventTitle(), null);
+		
+		if(removedEventCount * 2 > eventList.size()) {
+			
+			compactEventList();
+			
+		}
+		
+	}
+	
+	//Sets the finished date of the event at an index of the event list (null to unfinish it), which changes the days that it is shown on
+	private static void changeFinishedDate(int eventIndex, Date finishedDate) {
+		
+		Event event = eventList.get(eventIndex);
+		int previousLastDay = event.getLatestShowingDate().toEpochDay();
+		event.setFinishedDate(finishedDate);
+		noteChangedEvent(event);
+		
+		if(eventIntervalIndex != null) {
+			
+			eventIntervalIndex.update(event);
+			
+		}
+		
+		if(dayViewCache != null) {
+			
+			//Only the days between the previous and the new latest showing dates gain or lose the event
+			int lastDay = event.getLatestShowingDate().toEpochDay();
+			dayViewCache.invalidate(Math.max(Math.min(previousLastDay, lastDay) + 1, event.getBeginDate().toEpochDay()), Math.max(previousLastDay, lastDay));
+			
+		}
+		
+		if(eventColumns != null) {
+			
+			eventColumns.update(eventIndex, event);
+			
+		}
+		
+	}
+	
+	//Sets the title of the event at an index of the event list
+	private static void changeEventTitle(int eventIndex, String eventTitle) {
+		
+		Event event = eventList.get(eventIndex);
+		indexEventTitle(event.getId(), event.getEventTitle(), eventTitle);
+		
+		event.setEventTitle(eventTitle);
+		noteChangedEvent(event);
+		
+		if(eventColumns != null) {
+			
+			eventColumns.update(eventIndex, event);
+			
+		}
+		
+	}
+	
+	//Starts indexing the titles of the events in the background, unless they are indexed or being indexed already
+	//The index is built from a copy of the columns, and the changes to titles that are made in the meantime are applied to it once it is built
+	//Must only be called once every event has been read
+	private static void startBuildingSearchIndex() {
+		
+		if(eventSearchIndex != null || searchIndexTask != null) {
+			
+			return;
+			
+		}
+		
+		EventColumns columns = new EventColumns(eventList);
+		ArrayList<SearchIndexChange> changes = new ArrayList<SearchIndexChange>();
+		searchIndexChanges = changes;
+		
+		searchIndexTask = ForkJoinPool.commonPool().submit(() -> {
+			
+			EventSearchIndex index = null;
+			try {
+				
+				index = new EventSearchIndex(columns);
+				
+			} finally {
+				
+				synchronized(FileIO.class) {
+					
+					//The events may have been read again since
+					if(searchIndexChanges == changes) {
+						
+						if(index != null) {
+							
+							for(SearchIndexChange change : changes) {
+								
+								change.applyTo(index);
+								
+							}
+							eventSearchIndex = index;
+							
+						}
+						searchIndexTask = null;
+						searchIndexChanges = null;
+						
+					}
+					
+				}
+				
+			}
+			
+		});
+		
+	}
+	
+	//Keeps the search index up to date after an event's title was added, changed, or removed
+	//oldTitle is null for an event that was just added, and newTitle is null for an event that was just removed
+	private static void indexEventTitle(long id, String oldTitle, String newTitle) {
+		
+		if(eventSearchIndex != null) {
+			
+			new SearchIndexChange(id, oldTitle, newTitle).applyTo(eventSearchIndex);
+			
+		} else if(searchIndexChanges != null) {
+			
+			searchIndexChanges.add(new SearchIndexChange(id, oldTitle, newTitle));
+			
+		}
+		
+	}
+	
+	//Keeps track of a change to an event while a save that archives events is writing to the disk
+	private static void noteChangedEvent(Event event) {
+		
+		if(changedEventIds != null) {
+			
+			changedEventIds.add(event.getId());
+			
+		}
+		
+	}
+	
+	//Swaps the events at two indices of the event list
+	private static void exchangeEvents(int eventIndex1, int eventIndex2) {
+		
+		Event event1 = eventList.get(eventIndex1);
+		Event event2 = eventList.get(eventIndex2);
+		
+		if(eventIntervalIndex != null) {
+			
+			eventIntervalIndex.swap(event1, event2);
+			
+		}
+		
+		if(dayViewCache != null) {
+			
+			//Each event moves past the events between them, so the order changes on every day that either event is shown on
+			dayViewCache.invalidate(event1.getBeginDate().toEpochDay(), event1.getLatestShowingDate().toEpochDay());
+			dayViewCache.invalidate(event2.getBeginDate().toEpochDay(), event2.getLatestShowingDate().toEpochDay());
+			
+		}
+		
+		if(eventColumns != null) {
+			
+			eventColumns.swap(eventIndex1, eventIndex2);
+			
+		}
+		
+		if(eventList instanceof MappedEventList) {
+			
+			//Keeps store records as records, so that they can still be found by their IDs
+			((MappedEventList) eventList).swap(eventIndex1, eventIndex2);
+			
+		} else {
+			
+			eventList.set(eventIndex1, event2);
+			eventList.set(eventIndex2, event1);
+			
+		}
+		
+		//Store records keep their positions in the MappedEventList, and only the other events are in eventPositions
+		if(eventPositions != null) {
+			
+			eventPositions.replace(event1.getId(), eventIndex2);
+			eventPositions.replace(event2.getId(), eventIndex1);
+			
+		}
+		
+	}
+	
+	//Gives an event that has no ID the next one. If the event has an ID, no event gets that ID again.
+	private static void identifyEvent(Event event) {
+		
+		if(event.getId() == 0) {
+			
+			event.setId(nextEventId++);
+			
+		} else {
+			
+			nextEventId = Math.max(nextEventId, event.getId() + 1);
+			
+		}
+		
+	}
+	
+	//Gives IDs to the events that were read without them, in the order of the event list, so that the same file always gives the same events the same IDs
+	//This has to happen before the journal is replayed, since the journal refers to events by their IDs
+	private static void identifyEvents() {
+		
+		if(eventList instanceof MappedEventList) {
+			
+			//The store's events are only given IDs by the store, so that none of them are read
+			MappedEventStore store = ((MappedEventList) eventList).getStore();
+			if(!store.hasEventIds()) {
+				
+				store.assignEventIds(nextEventId);
+				
+			}
+			nextEventId = Math.max(nextEventId, store.getMaxEventId() + 1);
+			return;
+			
+		}
+		
+		//Events that have IDs go first, so that no event is given an ID that a later event already has
+		for(Event event : eventList) {
+			
+			if(event.getId() != 0) {
+				
+				identifyEvent(event);
+				
+			}
+			
+		}
+		
+		for(Event event : eventList) {
+			
+			if(event.getId() == 0) {
+				
+				identifyEvent(event);
+				
+			}
+			
+		}
+		
+	}
+	
+	//Applies a change that was read from the journal. This modifies the static fields directly, so that the change isn't journaled again.
+	private static void applyJournalRecord(Journal.Record record) {
+		
+		//Old records refer to the positions that events had without empty slots
+		if(record.refersToEventPosition()) {
+			
+			compactEventList();
+			
+			//A position past the end of the event list can only come from a damaged journal, so the change is skipped
+			if(record.index >= eventList.size() || record.otherIndex >= eventList.size()) {
+				
+				return;
+				
+			}
+			
+		}
+		
+		switch(record.type) {
+		
+		case Journal.ADD_EVENT:
+			//Records from before events had IDs
+			identifyEvent(record.event);
+			putEvent(record.event);
+			break;
+		case Journal.REMOVE_EVENT:
+			takeEvent(record.index);
+			break;
+		case Journal.EDIT_EVENT_TITLE:
+			changeEventTitle(record.index, record.title);
+			break;
+		case Journal.FINISH_EVENT:
+			changeFinishedDate(record.index, record.date);
+			break;
+		case Journal.UNFINISH_EVENT:
+			changeFinishedDate(record.index, null);
+			break;
+		case Journal.SWAP_EVENTS:
+			exchangeEvents(record.index, record.otherIndex);
+			break;
+		case Journal.ADD_EVENT_WITH_ID:
+			identifyEvent(record.event);
+			putEvent(record.event);
+			break;
+		case Journal.REMOVE_EVENT_BY_ID:
+			//An ID that isn't in the event list can only come from a damaged journal, so the change is skipped
+			if(findEventPosition(record.id) != -1) {
+				
+				takeEvent(findEventPosition(record.id));
+				
+			}
+			break;
+		case Journal.EDIT_EVENT_TITLE_BY_ID:
+			if(findEventPosition(record.id) != -1) {
+				
+				changeEventTitle(findEventPosition(record.id), record.title);
+				
+			}
+			break;
+		case Journal.FINISH_EVENT_BY_ID:
+			if(findEventPosition(record.id) != -1) {
+				
+				changeFinishedDate(findEventPosition(record.id), record.date);
+				
+			}
+			break;
+		case Journal.UNFINISH_EVENT_BY_ID:
+			if(findEventPosition(record.id) != -1) {
+				
+				changeFinishedDate(findEventPosition(record.id), null);
+				
+			}
+			break;
+		case Journal.SWAP_EVENTS_BY_ID:
+			if(findEventPosition(record.id) != -1 && findEventPosition(record.otherId) != -1) {
+				
+				exchangeEvents(findEventPosition(record.id), findEventPosition(record.otherId));
+				
+			}
+			break;
+		case Journal.SET_DARK_MODE:
+			usesDarkMode = record.flag;
+			break;
+		case Journal.SET_LONG_PRESS_MILLISECONDS:
+			longPressMilliseconds = record.number;
+			break;
+		case Journal.SET_LIGHT_FINISHED_COLOR:
+			lightFinishedEventColorRGB = record.rgb;
+			break;
+		case Journal.SET_DARK_FINISHED_COLOR:
+			darkFinishedEventColorRGB = record.rgb;
+			break;
+		case Journal.SET_LIGHT_OVERDUE_COLOR:
+			lightOverdueEventColorRGB = record.rgb;
+			break;
+		case Journal.SET_DARK_OVERDUE_COLOR:
+			darkOverdueEventColorRGB = record.rgb;
+			break;
+		case Journal.SET_DATE_FORMAT:
+			dateFormat = record.getDateFormat();
+			break;
+		case Journal.RESTORE_ARCHIVE_SEGMENT:
+			for(ArchiveSegment segment : archiveSegments) {
+				
+				if(!segment.isRestored() && segment.getFile().getName().equals(record.title)) {
+					
+					restoreArchiveSegment(segment);
+					
+				}
+				
+			}
+			break;
+		case Journal.SET_ARCHIVE_AGE_DAYS:
+			archiveAgeDays = record.number;
+			break;
+		case Journal.SET_COMPRESSES_EVENTS:
+			compressesEvents = record.flag;
+			break;
+		default:
+			throw new UnsupportedOperationException();
+		
+		}
+		
+	}
+	
+	//Journals a change to a setting
+	private static void logSetting(byte settingType, boolean value) {
+		
+		if(journal != null) {
+			
+			journal.logSetting(settingType, value);
+			scheduleAutosave();
+			
+		}
+		
+	}
+	
+	//Journals a change to a setting
+	private static void logSetting(byte settingType, int value) {
+		
+		if(journal != null) {
+			
+			journal.logSetting(settingType, value);
+			scheduleAutosave();
+			
+		}
+		
+	}
+	
+	//Journals a change to a setting
+	private static void logSetting(byte settingType, int[] rgb) {
+		
+		if(journal != null) {
+			
+			journal.logSetting(settingType, rgb);
+			scheduleAutosave();
+			
+		}
+		
+	}
+	
+	//Makes the save thread save soon. Any other changes made in the meantime will be saved along with this one.
+	private static void scheduleAutosave() {
+		
+		if(!isAutosaveScheduled) {
+			
+			isAutosaveScheduled = true;
+			saveExecutor.schedule(() -> {
+				
+				synchronized(FileIO.class) {
+					
+					isAutosaveScheduled = false;
+					
+				}
+				
+				saveChanges();
+				
+			}, AUTOSAVE_DELAY_MILLISECONDS, TimeUnit.MILLISECONDS);
+			
+		}
+		
+	}
+	
+	//Event store and archive segment files are kept next to the data file
+	private static File getDataDirectory() {
+		
+		return new File(FILE_DIR).getAbsoluteFile().getParentFile();
+		
+	}
+	
+	//Picks a name that begins with prefix for a new file next to the data file that no other file has
+	private static File createUniqueFile(String prefix) {
+		
+		return createUniqueFile(getDataDirectory(), prefix);
+		
+	}
+	
+	static File createUniqueFile(File directory, String prefix) {
+		
+		long fileNumber = System.currentTimeMillis();
+		File file = new File(directory, prefix + fileNumber);
+		
+		while(file.exists()) {
+			
+			fileNumber++;
+			file = new File(directory, prefix + fileNumber);
+			
+		}
+		
+		return file;
+		
+	}
+	
+	//Deletes every event store and archive segment that the data file doesn't point to
+	//Some systems can't delete a file while it is mapped into memory, so a store that is still open is left for the next time this is called
+	//Nothing is deleted while the data file is damaged, since the files that it pointed to may not be known
+	private static void deleteUnusedFiles(File keptEventStoreFile) {
+		
+		File[] files = getDataDirectory().listFiles();
+		
+		if(files == null || isDataFileDamaged) {
+			
+			return;
+			
+		}
+		
+		HashSet<File> keptFiles = new HashSet<File>();
+		keptFiles.add(keptEventStoreFile);
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			keptFiles.add(segment.getFile());
+			
+		}
+		
+		for(File file : files) {
+			
+			if((file.getName().startsWith(EVENT_STORE_PREFIX) || file.getName().startsWith(ARCHIVE_PREFIX)) && !keptFiles.contains(file)) {
+				
+				file.delete();
+				
+			}
+			
+		}
+		
+	}
+	
+	//Checks if any event in the event list is old enough to be moved into the archive
+	private static boolean hasEventsToArchive() {
+		
+		//The columns don't read any events of an event store
+		return getEventColumns().hasFinishedBefore(getTodayEpochDay() - archiveAgeDays);
+		
+	}
+	
+	private static boolean isOldEnoughToArchive(Event event, int cutoffDay) {
+		
+		return event.getFinishedDate() != null && event.getFinishedDate().toEpochDay() < cutoffDay;
+		
+	}
+	
+	//Finds the segments that archiveEvents will write again along with new events
+	private static ArrayList<ArchiveSegment> findSegmentsToArchiveInto() {
+		
+		int cutoffDay = getTodayEpochDay() - archiveAgeDays;
+		
+		HashSet<Integer> years = new HashSet<Integer>();
+		for(Event event : eventList) {
+			
+			if(event != null && isOldEnoughToArchive(event, cutoffDay)) {
+				
+				years.add(event.getLatestShowingDate().getYear());
+				
+			}
+			
+		}
+		
+		ArrayList<ArchiveSegment> segments = new ArrayList<ArchiveSegment>();
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			if(!segment.isRestored() && years.contains(segment.year)) {
+				
+				segments.add(segment);
+				
+			}
+			
+		}
+		
+		return segments;
+		
+	}
+	
+	//Sorts the events that are old enough into new archive segments, and puts the rest into hotEvents. The event list isn't changed, and no file is written.
+	//Segments of years that get new events are replaced by new segments with their old events too, which are taken from readSegments if they were read already.
+	//Restored segments are left out, since their events are in the event list.
+	//Returns every segment that the archive will have, and puts the new ones into newSegments
+	private static ArrayList<ArchiveSegment> archiveEvents(List<Event> hotEvents, Map<ArchiveSegment, ArrayList<Event>> readSegments, ArrayList<NewArchiveSegment> newSegments) throws IOException {
+		
+		int cutoffDay = getTodayEpochDay() - archiveAgeDays;
+		
+		TreeMap<Integer, ArrayList<Event>> archivedEvents = new TreeMap<Integer, ArrayList<Event>>();
+		for(int i = 0; i < eventList.size(); i++) {
+			
+			Event event = eventList.get(i);
+			
+			if(event == null) {
+				
+				continue;
+				
+			} else if(isOldEnoughToArchive(event, cutoffDay)) {
+				
+				archivedEvents.computeIfAbsent(event.getLatestShowingDate().getYear(), (year) -> new ArrayList<Event>()).add(event);
+				
+			} else {
+				
+				hotEvents.add(event);
+				
+			}
+			
+		}
+		
+		ArrayList<ArchiveSegment> segments = new ArrayList<ArchiveSegment>();
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			if(segment.isRestored()) {
+				
+				continue;
+				
+			}
+			
+			ArrayList<Event> newEvents = archivedEvents.remove(segment.year);
+			if(newEvents == null) {
+				
+				segments.add(segment);
+				
+			} else {
+				
+				//A segment that only got events to archive after findSegmentsToArchiveInto is read now
+				ArrayList<Event> oldEvents = readSegments.containsKey(segment) ? readSegments.get(segment) : segment.read();
+				for(Event event : oldEvents) {
+					
+					//Segments from before events had IDs are written again with IDs
+					identifyEvent(event);
+					
+				}
+				
+				NewArchiveSegment newSegment = new NewArchiveSegment(segment.year, newEvents, oldEvents, segment);
+				segments.add(newSegment.segment);
+				newSegments.add(newSegment);
+				
+			}
+			
+		}
+		
+		for(Map.Entry<Integer, ArrayList<Event>> entry : archivedEvents.entrySet()) {
+			
+			NewArchiveSegment newSegment = new NewArchiveSegment(entry.getKey(), entry.getValue(), new ArrayList<Event>(), null);
+			segments.add(newSegment.segment);
+			newSegments.add(newSegment);
+			
+		}
+		
+		return segments;
+		
+	}
+	
+	//Moves the archived events out of the event list, once the new segments and the data file that points to them were written
+	//Changes that were made to archived events while the segments were being written can't be replayed from the journal, since their events aren't in the data file.
+	//The segments of such events are restored instead, and the changes are journaled again after the segments. The same goes for a segment whose old segment was restored in the meantime.
+	private static void finishArchivingEvents(ArrayList<NewArchiveSegment> newSegments, HashSet<Long> changedIds) {
+		
+		for(NewArchiveSegment newSegment : newSegments) {
+			
+			boolean wasOldSegmentRestored = newSegment.oldSegment != null && newSegment.oldSegment.isRestored();
+			boolean isChanged = wasOldSegmentRestored;
+			for(Event event : newSegment.archivedEvents) {
+				
+				isChanged |= changedIds.contains(event.getId());
+				
+			}
+			
+			if(!isChanged) {
+				
+				for(Event event : newSegment.archivedEvents) {
+					
+					takeEvent(findEventPosition(event.getId()));
+					
+				}
+				continue;
+				
+			}
+			
+			//The archived events are still in the event list, and so are the old ones if their segment was restored
+			if(!wasOldSegmentRestored) {
+				
+				for(Event event : newSegment.oldEvents) {
+					
+					putEvent(event);
+					
+				}
+				
+			}
+			newSegment.segment.setRestored(true);
+			
+			if(journal != null) {
+				
+				journal.logRestoreArchiveSegment(newSegment.segment.getFile().getName());
+				journalChangedEvents(newSegment.archivedEvents, changedIds);
+				journalChangedEvents(newSegment.oldEvents, changedIds);
+				
+			}
+			
+		}
+		
+	}
+	
+	//Journals what the events that were changed are like now, or that they were removed
+	private static void journalChangedEvents(ArrayList<Event> events, HashSet<Long> changedIds) {
+		
+		for(Event event : events) {
+			
+			if(!changedIds.contains(event.getId())) {
+				
+				continue;
+				
+			}
+			
+			Event currentEvent = findEvent(event.getId());
+			if(currentEvent == null) {
+				
+				journal.logRemoveEvent(event.getId());
+				
+			} else {
+				
+				journal.logEditEventTitle(currentEvent.getId(), currentEvent.getEventTitle());
+				if(currentEvent.getFinishedDate() != null) {
+					
+					journal.logFinishEvent(currentEvent.getId(), currentEvent.getFinishedDate());
+					
+				} else {
+					
+					journal.logUnfinishEvent(currentEvent.getId());
+					
+				}
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * A change to the title of an event, for the search index
+	 */
+	private static class SearchIndexChange {
+		
+		final long id;
+		/**The title that the event was indexed with; null if the event was added*/
+		final String oldTitle;
+		/**The title that the event has now; null if the event was removed*/
+		final String newTitle;
+		
+		SearchIndexChange(long id, String oldTitle, String newTitle) {
+			
+			this.id = id;
+			this.oldTitle = oldTitle;
+			this.newTitle = newTitle;
+			
+		}
+		
+		void applyTo(EventSearchIndex index) {
+			
+			if(oldTitle != null) {
+				
+				index.remove(id, oldTitle);
+				
+			}
+			
+			if(newTitle != null) {
+				
+				index.add(id, newTitle);
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * A segment that a save is writing, along with the events that it was made of
+	 */
+	private static class NewArchiveSegment {
+		
+		/**The segment, whose file is written from <code>data</code>*/
+		final ArchiveSegment segment;
+		/**The contents of the segment's file*/
+		final byte[] data;
+		/**The events that were moved from the event list into the segment*/
+		final ArrayList<Event> archivedEvents;
+		/**The events that the segment kept from the segment of the same year that it replaces*/
+		final ArrayList<Event> oldEvents;
+		/**The segment that it replaces; null if there was none*/
+		final ArchiveSegment oldSegment;
+		
+		NewArchiveSegment(int year, ArrayList<Event> archivedEvents, ArrayList<Event> oldEvents, ArchiveSegment oldSegment) throws IOException {
+			
+			ArrayList<Event> events = new ArrayList<Event>(oldEvents);
+			events.addAll(archivedEvents);
+			
+			this.segment = ArchiveSegment.create(createUniqueFile(ARCHIVE_PREFIX + year + "."), year, events);
+			this.data = ArchiveSegment.encode(events);
+			this.archivedEvents = archivedEvents;
+			this.oldEvents = oldEvents;
+			this.oldSegment = oldSegment;
+			
+		}
+		
+	}
+	
+	//Rebuilds the archive index from the segment files in a directory, after the index in the data file was lost
+	//Without the index, the next clean save would leave the segments out of the data file and delete them along with every other unused file.
+	//Segment files are named ARCHIVE_PREFIX + year + "." + a unique number. Files written after the data file were never part of it, and
+	//only the newest file of each year is used, since a segment that is written again keeps the old events of its year.
+	//Segments of version 2.6 are read with event IDs first, since only the ones that were kept from before then have none.
+	private static void findArchiveSegments(File directory, boolean mayHaveEventIds) {
+		
+		File[] files = directory.listFiles();
+		
+		if(files == null) {
+			
+			return;
+			
+		}
+		
+		TreeMap<Integer, File> newestFiles = new TreeMap<Integer, File>();
+		for(File file : files) {
+			
+			if(!file.getName().startsWith(ARCHIVE_PREFIX) || file.lastModified() > dataFile.lastModified()) {
+				
+				continue;
+				
+			}
+			
+			String[] nameParts = file.getName().substring(ARCHIVE_PREFIX.length()).split("\\.");
+			try {
+				
+				if(nameParts.length != 2) {
+					
+					continue;
+					
+				}
+				
+				int year = Integer.parseInt(nameParts[0]);
+				Long.parseLong(nameParts[1]);
+				
+				File newestFile = newestFiles.get(year);
+				if(newestFile == null || file.lastModified() > newestFile.lastModified()) {
+					
+					newestFiles.put(year, file);
+					
+				}
+				
+			} catch(NumberFormatException e) {
+				
+				//Not a segment file, such as a temporary file that was left behind
+				
+			}
+			
+		}
+		
+		for(Map.Entry<Integer, File> entry : newestFiles.entrySet()) {
+			
+			try {
+				
+				if(mayHaveEventIds) {
+					
+					try {
+						
+						archiveSegments.add(ArchiveSegment.readFile(entry.getValue(), entry.getKey(), true));
+						continue;
+						
+					} catch(IOException e) {
+						
+						//Read again below without IDs
+						
+					}
+					
+				}
+				
+				archiveSegments.add(ArchiveSegment.readFile(entry.getValue(), entry.getKey(), false));
+				
+			} catch(IOException e) {
+				
+				e.printStackTrace();
+				
+			}
+			
+		}
+		
+		System.out.println("The archive index was lost, so " + archiveSegments.size() + " archive segments were found by their files");
+		
+	}
+	
+	//Gets the events that are shown on a day from the day view cache, finding them first if they aren't cached
+	//Must only be called once every event has been read. The list that is returned must not be changed.
+	private static ArrayList<Event> getCachedEventsShownOn(int epochDay) {
+		
+		if(dayViewCache == null) {
+			
+			dayViewCache = new DayViewCache(DAY_VIEW_CACHE_SIZE);
+			
+		}
+		
+		ArrayList<Event> cachedEvents = dayViewCache.get(epochDay);
+		if(cachedEvents == null) {
+			
+			//The index is built the first time that it is needed, so that events can be changed before then without keeping it up to date
+			if(eventIntervalIndex == null) {
+				
+				eventIntervalIndex = new EventIntervalIndex(eventList);
+				
+			}
+			
+			cachedEvents = eventIntervalIndex.getEventsShownOn(epochDay);
+			dayViewCache.put(epochDay, cachedEvents);
+			
+		}
+		
+		return cachedEvents;
+		
+	}
+	
+	//Restores the archive segments whose events may be shown on any day in a range of days, and journals that they were restored
+	private static void restoreArchiveSegmentsShownBetween(int firstDay, int lastDay) {
+		
+		for(ArchiveSegment segment : archiveSegments) {
+			
+			if(!segment.isRestored() && segment.mayBeShownBetween(firstDay, lastDay)) {
+				
+				//The segment's events are put after every other event, so every other event has to be read first
+				finishReadingEvents();
+				restoreArchiveSegment(segment);
+				
+				if(segment.isRestored() && journal != null) {
+					
+					journal.logRestoreArchiveSegment(segment.getFile().getName());
+					
+				}
+				
+			}
+			
+		}
+		
+	}
+	
+	//Puts the events of an archive segment back at the end of the event list
+	private static void restoreArchiveSegment(ArchiveSegment segment) {
+		
+		try {
+			
+			ArrayList<Event> events = segment.read();
+			for(Event event : events) {
+				
+				identifyEvent(event);
+				putEvent(event);
+				
+			}
+			segment.setRestored(true);
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	private static int getTodayEpochDay() {
+		
+		Calendar calendar = Calendar.getInstance();
+		return Date.of(calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH), calendar.get(Calendar.YEAR)).toEpochDay();
+		
+	}
+	
+	private static void writeRGB(DataOutputStream output, int[] rgb) throws IOException {
+		
+		EventCodec.writeVarInt(output, rgb[0]);
+		EventCodec.writeVarInt(output, rgb[1]);
+		EventCodec.writeVarInt(output, rgb[2]);
+		
+	}
+	
+	private static int[] readRGB(DataInput input) throws IOException {
+		
+		return new int[] {EventCodec.readVarInt(input), EventCodec.readVarInt(input), EventCodec.readVarInt(input)};
+		
+	}
+	
+	/**
+	 * Replaces a file's contents in a way that a crash never leaves a partially written file behind<br>
+	 * The data are written to a temporary file next to the file, forced onto the disk, and then the temporary file is renamed over the file.
+	 * @param file The file to replace
+	 * @param data The new contents of the file
+	 * @throws IOException If the file cannot be written
+	 */
+	static void writeAtomically(File file, byte[] data) throws IOException {
+		
+		File tempFile = new File(file.getPath() + ".tmp");
+		
+		FileOutputStream output = new FileOutputStream(tempFile);
+		try {
+			
+			output.write(data);
+			output.getFD().sync();
+			
+		} finally {
+			
+			output.close();
+			
+		}
+		
+		replaceFile(tempFile, file);
+		
+	}
+	
+	//Renames a temporary file that was fully written over a file
+	private static void replaceFile(File tempFile, File file) throws IOException {
+		
+		try {
+			
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			
+		} catch(AtomicMoveNotSupportedException e) {
+			
+			//Some file systems can't rename atomically. The temporary file was fully written, so this is still much safer than writing to the file directly.
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			
+		}
 		
 	}
 
@@ -0,0 +1,74 @@
+package main;
+
+import java.io.File;
+
+/**
+ *
+ * Rewrites data files that were written by older versions of FileIO in the current format, and reports how quickly each file was migrated, so that upgrades of large files can be planned.<br>
+ * Usage: <code>FileMigrator [data files...]</code>. Without any arguments, the data file at <code>FileIO.FILE_DIR</code> is migrated.<br>
+ * This must not be run on a data file that the program is currently using.
+ *
+ * @author James
+ */
+public abstract class FileMigrator {
+	
+	public static void main(String[] args) {
+		
+		String[] paths = args.length == 0 ? new String[] {FileIO.FILE_DIR} : args;
+		
+		int migratedFiles = 0;
+		long totalBytes = 0;
+		long totalEvents = 0;
+		long totalNanoseconds = 0;
+		
+		for(String path : paths) {
+			
+			File file = new File(path);
+			long oldLength = file.length();
+			
+			try {
+				
+				long startTime = System.nanoTime();
+				String oldVersion = FileIO.migrateFile(file);
+				long nanoseconds = System.nanoTime() - startTime;
+				
+				int eventCount = FileIO.getEvents().size();
+				System.out.printf("%s: %s -> %s, %d events, %d -> %d bytes in %.1f ms (%.2f MB/s, %.0f events/s)%n", path, oldVersion, FileIO.IO_VERSION, eventCount,
+						oldLength, file.length(), nanoseconds / 1e6, megabytesPerSecond(oldLength, nanoseconds), eventCount / (nanoseconds / 1e9));
+				
+				if(FileIO.isDataFileDamaged()) {
+					
+					System.out.println(path + ": was damaged, so only the events that could be read were migrated. A copy of the damaged file was kept.");
+					
+				}
+				
+				migratedFiles++;
+				totalBytes += oldLength;
+				totalEvents += eventCount;
+				totalNanoseconds += nanoseconds;
+				
+			} catch(Exception e) {
+				
+				//Keep migrating the other files
+				System.out.println(path + ": could not be migrated");
+				e.printStackTrace();
+				
+			}
+			
+		}
+		
+		if(paths.length > 1) {
+			
+			System.out.printf("Total: %d files, %d events, %d bytes in %.1f ms (%.2f MB/s)%n", migratedFiles, totalEvents, totalBytes, totalNanoseconds / 1e6, megabytesPerSecond(totalBytes, totalNanoseconds));
+			
+		}
+		
+	}
+	
+	private static double megabytesPerSecond(long bytes, long nanoseconds) {
+		
+		return (bytes / (1024.0 * 1024.0)) / (nanoseconds / 1e9);
+		
+	}
+	
+}
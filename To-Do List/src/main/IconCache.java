@@ -0,0 +1,29 @@
+package main;
+
+import java.util.HashMap;
+
+import javax.swing.ImageIcon;
+
+/**
+ *
+ * The icons that the windows use, by the names of their resources.<br>
+ * Each image is only loaded the first time that it is needed, and then every window that uses it shares the same icon.
+ *
+ * @author James
+ */
+public class IconCache {
+	
+	private static final HashMap<String, ImageIcon> iconsByName = new HashMap<String, ImageIcon>();
+	
+	/**
+	 * Gets an icon, loading it the first time
+	 * @param name The name of the icon's resource, for example "/todoicon.png"
+	 * @return The shared icon
+	 */
+	public synchronized static ImageIcon getIcon(String name) {
+		
+		return iconsByName.computeIfAbsent(name, (resourceName) -> new ImageIcon(IconCache.class.getResource(resourceName)));
+		
+	}
+	
+}
@@ -0,0 +1,1075 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.io.UTFDataFormatException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import support.Date;
+import support.Date.DateFormat;
+import support.Event;
+import support.EventCodec;
+
+/**
+ *
+ * An append-only log of the changes that were made to FileIO's data since the data file was last written.<br>
+ * Each change is appended to the journal file as a small record, so that a single change doesn't require the entire data file to be rewritten.<br>
+ * When the data file is read, the records of the journal are replayed on top of it. Once the journal gets too large, FileIO folds it back into the data file (compaction).<br>
+ * Events are referred to by their IDs (see <code>Event.getId</code>), so a change to an event doesn't depend on where the event is in FileIO's internal event list. 
+ * Journals that were written before events had IDs refer to events by their index in the event list at the time the record was written, and their records can still be replayed.<br><br>
+ * The data file remembers the generation of the journal and the offset into the journal that it already contains. 
+ * A journal that was started after the data file was written instead remembers the generation and offset that it continues from.
+ * This way, records are replayed exactly once, no matter where the program stopped while saving.<br>
+ * Every record is stored with its length and a CRC-32 checksum, like the blocks of the data file, so that a damaged record is detected instead of being misread.
+ *
+ * @author James
+ */
+public class Journal {
+	
+	/**
+	 * The version of the journal's header and record format. It is independent of FileIO's version.<br>
+	 * Version 1 headers only contain the generation. Version 2 headers also contain the generation and offset that the journal continues from.
+	 * Version 3 stores every record with its length and checksum (see <code>FileIO.writeCheckedBlock</code>).
+	 */
+	public static final int JOURNAL_VERSION = 3;
+	
+	/**The length of the header of a version 1 journal. Data files of FileIO version 1.3 contain none of the records of their journal, so this is their journal offset.*/
+	public static final int VERSION_1_HEADER_LENGTH = 4 + 8;
+	/**The length of the header of a version 2 or 3 journal*/
+	private static final int HEADER_LENGTH = 4 + 8 + 8 + 8;
+	/**The length of the largest record: an event with an ID, a finish date and the longest title that writeUTF allows*/
+	private static final int MAX_RECORD_LENGTH = 1 + 8 + 2 + 65535 + 12 + 12 + 1 + 12;
+	
+	//The types of records
+	public static final byte ADD_EVENT = 1;
+	public static final byte REMOVE_EVENT = 2;
+	public static final byte EDIT_EVENT_TITLE = 3;
+	public static final byte FINISH_EVENT = 4;
+	public static final byte UNFINISH_EVENT = 5;
+	public static final byte SWAP_EVENTS = 6;
+	public static final byte SET_DARK_MODE = 7;
+	public static final byte SET_LONG_PRESS_MILLISECONDS = 8;
+	public static final byte SET_LIGHT_FINISHED_COLOR = 9;
+	public static final byte SET_DARK_FINISHED_COLOR = 10;
+	public static final byte SET_LIGHT_OVERDUE_COLOR = 11;
+	public static final byte SET_DARK_OVERDUE_COLOR = 12;
+	public static final byte SET_DATE_FORMAT = 13;
+	public static final byte RESTORE_ARCHIVE_SEGMENT = 14;
+	public static final byte SET_ARCHIVE_AGE_DAYS = 15;
+	public static final byte SET_COMPRESSES_EVENTS = 16;
+	public static final byte ADD_EVENT_WITH_ID = 17;
+	public static final byte REMOVE_EVENT_BY_ID = 18;
+	public static final byte EDIT_EVENT_TITLE_BY_ID = 19;
+	public static final byte FINISH_EVENT_BY_ID = 20;
+	public static final byte UNFINISH_EVENT_BY_ID = 21;
+	public static final byte SWAP_EVENTS_BY_ID = 22;
+	
+	/**The journal file*/
+	private final File file;
+	/**The generation of this journal. It changes every time the journal is started over.*/
+	private long generation;
+	/**For a new journal: the generation of the journal that this journal continues from*/
+	private long baseGeneration;
+	/**For a new journal: the offset into the journal of <code>baseGeneration</code> that this journal continues from*/
+	private long baseOffset;
+	/**The file stream that <code>output</code> writes to*/
+	private FileOutputStream fileOutput;
+	/**The stream that records are appended through (null when the journal is closed)*/
+	private DataOutputStream output;
+	/**The length of the journal file in bytes, including records that haven't been flushed yet*/
+	private long length;
+	/**The length of the journal file before <code>output</code> started appending to it*/
+	private long lengthAtOpen;
+	/**The record that is being appended, before it is written to <code>output</code> with its length and checksum*/
+	private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+	/**The stream that a record is written to <code>recordBuffer</code> through*/
+	private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+	/**The records of a journal in an older format that continues from the data file. <code>open()</code> rewrites them in the current format.*/
+	private ArrayList<byte[]> upgradedRecords;
+	
+	/**
+	 * Creates a journal object. No file is touched until <code>replay()</code> or <code>open()</code> is called.
+	 * @param dir The directory of the journal file
+	 */
+	public Journal(String dir) {
+		
+		this.file = new File(dir);
+		
+	}
+	
+	/**
+	 * Reads every complete record of the journal file that the data file doesn't already contain.<br>
+	 * If the journal doesn't continue from the data file, it is stale, no records are returned, and <code>open()</code> will start a new journal. 
+	 * A record that was only partially written (for example, because the program crashed) ends the journal.
+	 * So does a record that is invalid, which can only come from a damaged journal. The damaged journal is copied aside with <code>FileIO.DAMAGED_SUFFIX</code>, since <code>open()</code> cuts it off before that record.
+	 * @param fileGeneration The journal generation that is saved in the data file
+	 * @param fileOffset The offset into the journal that is saved in the data file
+	 * @return The records, in the order they were written
+	 * @throws IOException If the journal file exists but cannot be read
+	 */
+	public ArrayList<Record> replay(long fileGeneration, long fileOffset) throws IOException {
+		
+		ArrayList<Record> records = new ArrayList<Record>();
+		
+		//Unless a journal that continues from the data file is found, a new one will be started
+		generation = fileGeneration + 1;
+		baseGeneration = fileGeneration;
+		baseOffset = fileOffset;
+		length = 0;
+		upgradedRecords = null;
+		boolean damaged = false;
+		
+		BufferedInputStream bufferedInput;
+		DataInputStream input;
+		try {
+			
+			bufferedInput = new BufferedInputStream(new FileInputStream(file));
+			input = new DataInputStream(bufferedInput);
+			
+		} catch(FileNotFoundException e) {
+			
+			//No journal means that there were no changes since the data file was written
+			return records;
+			
+		}
+		
+		try {
+			
+			int version = input.readInt();
+			long journalGeneration = input.readLong();
+			int headerLength;
+			//Version 1 journals don't remember what they continue from
+			long journalBaseGeneration = -1;
+			long journalBaseOffset = -1;
+			
+			if(version == 1) {
+				
+				headerLength = VERSION_1_HEADER_LENGTH;
+				
+			} else if(version == 2 || version == JOURNAL_VERSION) {
+				
+				headerLength = HEADER_LENGTH;
+				journalBaseGeneration = input.readLong();
+				journalBaseOffset = input.readLong();
+				
+			} else {
+				
+				//The journal was written in a format that this FileIO doesn't understand, so it is ignored and will be overwritten
+				return records;
+				
+			}
+			
+			//The offset of the first record that has to be replayed
+			long replayOffset;
+			
+			if(journalGeneration == fileGeneration && fileOffset >= headerLength) {
+				
+				//The data file was written from this journal, so skip the records that the data file already contains
+				replayOffset = fileOffset;
+				skipFully(input, fileOffset - headerLength);
+				
+			} else if(journalBaseGeneration == fileGeneration && journalBaseOffset == fileOffset) {
+				
+				//This journal was started right after the data file was written
+				replayOffset = headerLength;
+				
+			} else {
+				
+				//The journal is stale, so it is ignored and will be overwritten
+				return records;
+				
+			}
+			
+			if(version != JOURNAL_VERSION) {
+				
+				//The records of older journals aren't checked, so they are kept to be rewritten in the current format, in a new journal that continues from the data file
+				upgradedRecords = new ArrayList<byte[]>();
+				
+				while(true) {
+					
+					bufferedInput.mark(MAX_RECORD_LENGTH);
+					Record record = readRecord(input);
+					bufferedInput.reset();
+					
+					byte[] recordBytes = new byte[record.size];
+					input.readFully(recordBytes);
+					records.add(record);
+					upgradedRecords.add(recordBytes);
+					
+				}
+				
+			}
+			
+			//The journal continues from the data file
+			generation = journalGeneration;
+			length = replayOffset;
+			long validLength = replayOffset;
+			
+			while(true) {
+				
+				byte[] recordBytes = readCheckedRecord(input);
+				if(recordBytes == null) {
+					
+					break;
+					
+				}
+				
+				records.add(parseRecord(recordBytes));
+				validLength += checkedRecordLength(recordBytes.length);
+				
+				//Only advance the valid length once a record has been read completely
+				length = validLength;
+				
+			}
+			
+		} catch(EOFException e) {
+			
+			//Reached the end of the journal, or a partially written record at the end of the journal
+			
+		} catch(StreamCorruptedException | UTFDataFormatException e) {
+			
+			//The records before the invalid one are still used, but the rest of the journal can't be trusted
+			damaged = true;
+			
+		} finally {
+			
+			input.close();
+			
+		}
+		
+		if(damaged) {
+			
+			File damagedFile = FileIO.createUniqueFile(file.getAbsoluteFile().getParentFile(), file.getName() + FileIO.DAMAGED_SUFFIX);
+			Files.copy(file.toPath(), damagedFile.toPath());
+			System.out.println("The journal is damaged. The changes before the damage were kept, and the journal was copied to " + damagedFile.getPath());
+			
+		}
+		
+		return records;
+		
+	}
+	
+	/**
+	 * Opens the journal so that records can be appended to it.<br>
+	 * If <code>replay()</code> found a journal that continues from the data file, it is continued after the last complete record. Otherwise, a new, empty journal is started.
+	 * A journal in an older format is replaced by a new journal that contains its records in the current format, so that the formats are never mixed.
+	 * @throws IOException If the journal file cannot be opened
+	 */
+	public void open() throws IOException {
+		
+		if(upgradedRecords != null) {
+			
+			//Start a new journal that continues from the data file, like the old one did
+			ByteArrayOutputStream newJournal = new ByteArrayOutputStream();
+			DataOutputStream newJournalOutput = new DataOutputStream(newJournal);
+			newJournalOutput.write(createHeader(generation, baseGeneration, baseOffset));
+			for(byte[] record : upgradedRecords) {
+				
+				FileIO.writeCheckedBlock(newJournalOutput, record);
+				
+			}
+			
+			FileIO.writeAtomically(file, newJournal.toByteArray());
+			length = newJournal.size();
+			upgradedRecords = null;
+			
+		} else if(length == 0) {
+			
+			//Start a new journal
+			FileIO.writeAtomically(file, createHeader(generation, baseGeneration, baseOffset));
+			length = HEADER_LENGTH;
+			
+		} else {
+			
+			//Cut off anything after the last complete record
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+			randomAccessFile.setLength(length);
+			randomAccessFile.close();
+			
+		}
+		
+		//Continue the journal
+		append();
+		
+	}
+	
+	/**
+	 * Starts the journal over after the data file was written.<br>
+	 * The records that were appended after the data file was written are carried over to the new journal, which replaces the old one atomically.
+	 * @param fileOffset The offset into this journal that the data file that was just written contains
+	 * @throws IOException If the new journal cannot be written. The old journal is kept, and records are still appended to it.
+	 */
+	public void rotate(long fileOffset) throws IOException {
+		
+		//Closing writes the records that are still buffered. Some systems also can't replace a file while it is open.
+		close();
+		
+		byte[] remainingRecords;
+		try {
+			
+			//Read the records that the data file doesn't contain
+			remainingRecords = new byte[(int) (length - fileOffset)];
+			RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+			randomAccessFile.seek(fileOffset);
+			randomAccessFile.readFully(remainingRecords);
+			randomAccessFile.close();
+			
+			//The new journal continues from where the data file left off in this journal
+			ByteArrayOutputStream newJournal = new ByteArrayOutputStream(HEADER_LENGTH + remainingRecords.length);
+			newJournal.write(createHeader(generation + 1, generation, fileOffset));
+			newJournal.write(remainingRecords);
+			
+			FileIO.writeAtomically(file, newJournal.toByteArray());
+			
+		} catch(IOException e) {
+			
+			//The old journal was left as it was, so records keep being appended to it, and the next save tries again
+			try {
+				
+				append();
+				
+			} catch(IOException appendException) {
+				
+				e.addSuppressed(appendException);
+				
+			}
+			throw e;
+			
+		}
+		
+		baseGeneration = generation;
+		baseOffset = fileOffset;
+		generation++;
+		length = HEADER_LENGTH + remainingRecords.length;
+		
+		append();
+		
+	}
+	
+	/**
+	 * Writes the records that were appended since the last call to this method to the journal file, without waiting for the disk to store them
+	 * @throws IOException If the records cannot be written
+	 */
+	public void flush() throws IOException {
+		
+		if(output != null) {
+			
+			output.flush();
+			
+		}
+		
+	}
+	
+	/**
+	 * Waits for the disk to actually store what <code>flush()</code> wrote to the journal file.<br>
+	 * Unlike the other methods, this can be called while records are being appended from another thread, but not while the journal is being rotated or closed.
+	 * @throws IOException If the disk cannot store the journal file
+	 */
+	public void force() throws IOException {
+		
+		FileOutputStream fileOutput = this.fileOutput;
+		if(fileOutput != null) {
+			
+			fileOutput.getFD().sync();
+			
+		}
+		
+	}
+	
+	/**
+	 * Closes the journal. Records can no longer be appended afterwards.
+	 */
+	public void close() {
+		
+		if(output != null) {
+			
+			try {
+				
+				output.close();
+				
+			} catch(IOException e) {
+				
+				e.printStackTrace();
+				
+			}
+			
+			output = null;
+			fileOutput = null;
+			
+		}
+		
+	}
+	
+	/**
+	 * @return The generation of this journal
+	 */
+	public long getGeneration() {
+		
+		return generation;
+		
+	}
+	
+	/**
+	 * @return The length of the journal file in bytes, including records that haven't been written to the disk yet
+	 */
+	public long length() {
+		
+		return length;
+		
+	}
+	
+	public void logAddEvent(Event event) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(ADD_EVENT_WITH_ID);
+			recordOutput.writeLong(event.getId());
+			writeEvent(recordOutput, event);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logRemoveEvent(long id) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(REMOVE_EVENT_BY_ID);
+			recordOutput.writeLong(id);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logEditEventTitle(long id, String newEventTitle) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(EDIT_EVENT_TITLE_BY_ID);
+			recordOutput.writeLong(id);
+			recordOutput.writeUTF(newEventTitle);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logFinishEvent(long id, Date finishedDate) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(FINISH_EVENT_BY_ID);
+			recordOutput.writeLong(id);
+			writeDate(recordOutput, finishedDate);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logUnfinishEvent(long id) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(UNFINISH_EVENT_BY_ID);
+			recordOutput.writeLong(id);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logSwapEvents(long id1, long id2) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(SWAP_EVENTS_BY_ID);
+			recordOutput.writeLong(id1);
+			recordOutput.writeLong(id2);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	/**
+	 * Journals that the events of an archive segment were put back at the end of the event list
+	 * @param segmentFileName The name of the segment's file
+	 */
+	public void logRestoreArchiveSegment(String segmentFileName) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(RESTORE_ARCHIVE_SEGMENT);
+			recordOutput.writeUTF(segmentFileName);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logSetting(byte settingType, boolean value) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(settingType);
+			recordOutput.writeBoolean(value);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logSetting(byte settingType, int value) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(settingType);
+			recordOutput.writeInt(value);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	public void logSetting(byte settingType, int[] rgb) {
+		
+		if(output == null) {
+			
+			return;
+			
+		}
+		
+		try {
+			
+			recordOutput.writeByte(settingType);
+			recordOutput.writeInt(rgb[0]);
+			recordOutput.writeInt(rgb[1]);
+			recordOutput.writeInt(rgb[2]);
+			commitRecord();
+			
+		} catch(IOException e) {
+			
+			e.printStackTrace();
+			
+		}
+		
+	}
+	
+	//Opens the stream that records are appended to the end of the journal file through
+	private void append() throws IOException {
+		
+		fileOutput = new FileOutputStream(file, true);
+		output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+		lengthAtOpen = length;
+		
+	}
+	
+	//Appends the record in recordBuffer with its length and checksum, and keeps track of the journal's length. The record is only written to the disk by flush() and force().
+	private void commitRecord() throws IOException {
+		
+		byte[] record = recordBuffer.toByteArray();
+		recordBuffer.reset();
+		
+		FileIO.writeCheckedBlock(output, record);
+		length = lengthAtOpen + output.size();
+		
+	}
+	
+	private static byte[] createHeader(long generation, long baseGeneration, long baseOffset) throws IOException {
+		
+		ByteArrayOutputStream header = new ByteArrayOutputStream(HEADER_LENGTH);
+		DataOutputStream headerOutput = new DataOutputStream(header);
+		headerOutput.writeInt(JOURNAL_VERSION);
+		headerOutput.writeLong(generation);
+		headerOutput.writeLong(baseGeneration);
+		headerOutput.writeLong(baseOffset);
+		return header.toByteArray();
+		
+	}
+	
+	private static void skipFully(DataInputStream input, long bytes) throws IOException {
+		
+		while(bytes > 0) {
+			
+			int skipped = input.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+			if(skipped == 0) {
+				
+				//The journal is shorter than the data file expects, so it can't be continued
+				throw new EOFException();
+				
+			}
+			bytes -= skipped;
+			
+		}
+		
+	}
+	
+	//Reads the bytes of a record that was written by commitRecord
+	//Returns null at the end of the journal. After a crash, some file systems leave the end of a file filled with zeros, which also ends the journal.
+	//Throws StreamCorruptedException if the record is damaged
+	private static byte[] readCheckedRecord(DataInputStream input) throws IOException {
+		
+		int recordLength = EventCodec.readVarInt(input);
+		
+		if(recordLength == 0) {
+			
+			//No record is empty, so the rest of the journal has to be zeros
+			int b;
+			while((b = input.read()) != -1) {
+				
+				if(b != 0) {
+					
+					throw new StreamCorruptedException("Empty journal record");
+					
+				}
+				
+			}
+			
+			return null;
+			
+		}
+		
+		if(recordLength < 0 || recordLength > MAX_RECORD_LENGTH) {
+			
+			throw new StreamCorruptedException("Invalid journal record length");
+			
+		}
+		
+		byte[] record = new byte[recordLength];
+		input.readFully(record);
+		
+		if(input.readInt() != FileIO.checksum(record)) {
+			
+			throw new StreamCorruptedException("The journal record's checksum doesn't match its bytes");
+			
+		}
+		
+		return record;
+		
+	}
+	
+	//Reads a record from the bytes that readCheckedRecord returned, which have to contain exactly one record
+	private static Record parseRecord(byte[] recordBytes) throws IOException {
+		
+		Record record;
+		try {
+			
+			record = readRecord(new DataInputStream(new ByteArrayInputStream(recordBytes)));
+			
+		} catch(EOFException e) {
+			
+			//The checksum matched, so the record was written this way, rather than cut off
+			throw new StreamCorruptedException("Journal record is too short");
+			
+		}
+		
+		if(record.size != recordBytes.length) {
+			
+			throw new StreamCorruptedException("Journal record is too long");
+			
+		}
+		
+		return record;
+		
+	}
+	
+	//The number of bytes that a record takes up in the journal with its length and checksum
+	private static int checkedRecordLength(int recordLength) {
+		
+		int varIntLength = 1;
+		for(int remaining = recordLength >>> 7; remaining != 0; remaining >>>= 7) {
+			
+			varIntLength++;
+			
+		}
+		
+		return varIntLength + recordLength + 4;
+		
+	}
+	
+	//Reads one record. Also counts the number of bytes that the record took up.
+	//Throws StreamCorruptedException if the record is invalid
+	private static Record readRecord(DataInputStream input) throws IOException {
+		
+		Record record = new Record();
+		record.type = input.readByte();
+		record.size = 1;
+		
+		switch(record.type) {
+		
+		case ADD_EVENT:
+			record.event = readEvent(input, record);
+			break;
+		case REMOVE_EVENT:
+		case UNFINISH_EVENT:
+			record.index = readIndex(input);
+			record.size += 4;
+			break;
+		case EDIT_EVENT_TITLE:
+			record.index = readIndex(input);
+			record.title = input.readUTF();
+			record.size += 4 + 2 + utfLength(record.title);
+			break;
+		case FINISH_EVENT:
+			record.index = readIndex(input);
+			record.date = readDate(input);
+			record.size += 4 + 12;
+			break;
+		case SWAP_EVENTS:
+			record.index = readIndex(input);
+			record.otherIndex = readIndex(input);
+			record.size += 4 + 4;
+			break;
+		case ADD_EVENT_WITH_ID:
+			record.id = input.readLong();
+			record.size += 8;
+			record.event = readEvent(input, record);
+			record.event.setId(record.id);
+			break;
+		case REMOVE_EVENT_BY_ID:
+		case UNFINISH_EVENT_BY_ID:
+			record.id = input.readLong();
+			record.size += 8;
+			break;
+		case EDIT_EVENT_TITLE_BY_ID:
+			record.id = input.readLong();
+			record.title = input.readUTF();
+			record.size += 8 + 2 + utfLength(record.title);
+			break;
+		case FINISH_EVENT_BY_ID:
+			record.id = input.readLong();
+			record.date = readDate(input);
+			record.size += 8 + 12;
+			break;
+		case SWAP_EVENTS_BY_ID:
+			record.id = input.readLong();
+			record.otherId = input.readLong();
+			record.size += 8 + 8;
+			break;
+		case SET_DARK_MODE:
+		case SET_COMPRESSES_EVENTS:
+			record.flag = input.readBoolean();
+			record.size += 1;
+			break;
+		case RESTORE_ARCHIVE_SEGMENT:
+			record.title = input.readUTF();
+			record.size += 2 + utfLength(record.title);
+			break;
+		case SET_LONG_PRESS_MILLISECONDS:
+		case SET_ARCHIVE_AGE_DAYS:
+			record.number = input.readInt();
+			record.size += 4;
+			break;
+		case SET_DATE_FORMAT:
+			record.number = input.readInt();
+			record.size += 4;
+			if(record.number < 0 || record.number >= DateFormat.values().length) {
+				
+				throw new StreamCorruptedException("Invalid date format in journal record");
+				
+			}
+			break;
+		case SET_LIGHT_FINISHED_COLOR:
+		case SET_DARK_FINISHED_COLOR:
+		case SET_LIGHT_OVERDUE_COLOR:
+		case SET_DARK_OVERDUE_COLOR:
+			record.rgb = new int[] {readColorComponent(input), readColorComponent(input), readColorComponent(input)};
+			record.size += 12;
+			break;
+		default:
+			//An unknown record type can only come from a damaged journal
+			throw new StreamCorruptedException("Unknown journal record type " + record.type);
+			
+		}
+		
+		return record;
+		
+	}
+	
+	private static void writeEvent(DataOutputStream output, Event event) throws IOException {
+		
+		output.writeUTF(event.getEventTitle());
+		writeDate(output, event.getBeginDate());
+		writeDate(output, event.getEndDate());
+		output.writeBoolean(event.getFinishedDate() != null);
+		if(event.getFinishedDate() != null) {
+			
+			writeDate(output, event.getFinishedDate());
+			
+		}
+		
+	}
+	
+	private static Event readEvent(DataInputStream input, Record record) throws IOException {
+		
+		String eventTitle = input.readUTF();
+		Date beginDate = readDate(input);
+		Date endDate = readDate(input);
+		
+		if(beginDate.compareTo(endDate) > 0) {
+			
+			throw new StreamCorruptedException("Event in journal record ends before it begins");
+			
+		}
+		
+		Event event = new Event(beginDate, endDate, eventTitle);
+		record.size += 2 + utfLength(eventTitle) + 12 + 12 + 1;
+		if(input.readBoolean()) {
+			
+			event.setFinishedDate(readDate(input));
+			record.size += 12;
+			
+		}
+		
+		return event;
+		
+	}
+	
+	private static void writeDate(DataOutputStream output, Date date) throws IOException {
+		
+		output.writeInt(date.getMonth());
+		output.writeInt(date.getDay());
+		output.writeInt(date.getYear());
+		
+	}
+	
+	private static Date readDate(DataInputStream input) throws IOException {
+		
+		int month = input.readInt();
+		int day = input.readInt();
+		int year = input.readInt();
+		
+		if(!Date.isValidDate(month, day, year)) {
+			
+			throw new StreamCorruptedException("Invalid date in journal record");
+			
+		}
+		
+		return Date.of(month, day, year);
+		
+	}
+	
+	//Reads the position of an event in a record from before events had IDs
+	private static int readIndex(DataInputStream input) throws IOException {
+		
+		int index = input.readInt();
+		
+		if(index < 0) {
+			
+			throw new StreamCorruptedException("Invalid event position in journal record");
+			
+		}
+		
+		return index;
+		
+	}
+	
+	private static int readColorComponent(DataInputStream input) throws IOException {
+		
+		int component = input.readInt();
+		
+		if(component < 0 || component > 255) {
+			
+			throw new StreamCorruptedException("Invalid color in journal record");
+			
+		}
+		
+		return component;
+		
+	}
+	
+	//The number of bytes that writeUTF uses for a String, not including the 2 byte length prefix
+	private static int utfLength(String str) {
+		
+		int utfLength = 0;
+		for(int i = 0; i < str.length(); i++) {
+			
+			char c = str.charAt(i);
+			if(c >= 0x0001 && c <= 0x007F) {
+				
+				utfLength++;
+				
+			} else if(c > 0x07FF) {
+				
+				utfLength += 3;
+				
+			} else {
+				
+				utfLength += 2;
+				
+			}
+			
+		}
+		
+		return utfLength;
+		
+	}
+	
+	/**
+	 * A single change that was read from the journal. Only the fields that are relevant to the record's type are set.
+	 * @author James
+	 */
+	public static class Record {
+		
+		/**The type of the record, for example <code>ADD_EVENT</code>*/
+		public byte type;
+		/**For records written before events had IDs: the index of the event that the record is about*/
+		public int index;
+		/**For <code>SWAP_EVENTS</code>: the index of the other event*/
+		public int otherIndex;
+		/**The ID of the event that the record is about*/
+		public long id;
+		/**For <code>SWAP_EVENTS_BY_ID</code>: the ID of the other event*/
+		public long otherId;
+		/**For <code>ADD_EVENT</code> and <code>ADD_EVENT_WITH_ID</code>: the event that was added*/
+		public Event event;
+		/**For <code>FINISH_EVENT</code>: the finish date*/
+		public Date date;
+		/**For <code>EDIT_EVENT_TITLE</code>: the new title. For <code>RESTORE_ARCHIVE_SEGMENT</code>: the name of the segment's file*/
+		public String title;
+		/**For boolean settings*/
+		public boolean flag;
+		/**For integer settings. For <code>SET_DATE_FORMAT</code>, this is the ordinal of the DateFormat*/
+		public int number;
+		/**For color settings*/
+		public int[] rgb;
+		/**The number of bytes that this record took up in the journal, not including its length and checksum*/
+		private int size;
+		
+		/**
+		 * @return True if the record changes the events, rather than a setting
+		 */
+		public boolean changesEvents() {
+			
+			return (type >= ADD_EVENT && type <= SWAP_EVENTS) || type == RESTORE_ARCHIVE_SEGMENT || (type >= ADD_EVENT_WITH_ID && type <= SWAP_EVENTS_BY_ID);
+			
+		}
+		
+		/**
+		 * @return True if the record was written before events had IDs and refers to an event by its position in the event list.
+		 * Positions don't match when events are missing from a damaged data file, but IDs still do.
+		 */
+		public boolean refersToEventPosition() {
+			
+			return type >= REMOVE_EVENT && type <= SWAP_EVENTS;
+			
+		}
+		
+		/**
+		 * @return The DateFormat of a <code>SET_DATE_FORMAT</code> record
+		 */
+		public DateFormat getDateFormat() {
+			
+			return DateFormat.values()[number];
+			
+		}
+		
+	}
+	
+}
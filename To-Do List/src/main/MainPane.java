@@ -11,15 +11,17 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.EventObject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.DefaultCellEditor;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
-import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JMenuItem;
@@ -31,15 +33,17 @@ import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.LookAndFeel;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.event.MouseInputAdapter;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
-import com.formdev.flatlaf.FlatDarkLaf;
 import com.formdev.flatlaf.FlatLightLaf;
 
 import support.Date;
@@ -59,6 +63,10 @@ public class MainPane extends JPanel {
 	private static final int CENTER_PANEL_RIGHT_INDENT = 115;
 	/**The separation between most window components*/
 	private static final int DEFAULT_COMPONENT_SEPARATION = 2;
+	/**The greatest number of events that a search shows*/
+	private static final int MAX_SEARCH_RESULTS = 10;
+	/**The number of days before and after the loaded day whose events are found in the background after it is loaded, so that going to them is quick*/
+	private static final int PREFETCHED_DAYS = 3;
 	
 	/**The title label (should say "To-Do for [IRL today's date]")*/
 	private JLabel titleLabel; 
@@ -69,10 +77,16 @@ public class MainPane extends JPanel {
 	/**A text field (a.k.a. text box) that displays the date that the list is showing events for. <br>
 	 * The user can also directly type a date in this text box to see events for that date.*/
 	private JTextField dateField; 
+	/**A text box above the event list that searches every event by the words in their titles as the user types*/
+	private JTextField searchField;
+	/**The pop up menu below <code>searchField</code> that shows the events that were found. Choosing one goes to its begin date.*/
+	private JPopupMenu searchPopupMenu;
 	/**The table model for the event list*/
-	private DefaultTableModel eventsTableModel;
+	private EventTableModel eventsTableModel;
 	/**The event list is displayed through this table.*/
 	private JTable eventsTable;
+	/**Marks the selected event as done once the user has pressed down on it for long enough. Stopped when the user releases or drags the mouse.*/
+	private Timer longPressTimer;
 	/**The scroll pane that <code>eventsTable</code> is put in*/
 	private JScrollPane eventsScrollPane;
 	/**The pop up menu that displays when the user right clicks on an event in the list. Allows user to delete the event or mark/unmark it as done*/
@@ -94,20 +108,52 @@ public class MainPane extends JPanel {
 	/**Switches between light and dark mode*/
 	private JButton appearanceButton;
 	
+	/**Finds the events of the days that are loaded, in the background, one day at a time*/
+	private final ExecutorService dayLoadExecutor = Executors.newSingleThreadExecutor((runnable) -> {
+		
+		Thread dayLoadThread = new Thread(runnable, "MainPane day loading thread");
+		dayLoadThread.setDaemon(true);
+		return dayLoadThread;
+		
+	});
+	/**Counts the days that have been loaded. Each load knows its number, so a load that isn't the latest one is cancelled.*/
+	private volatile int latestDayLoad;
+	/**True from when a day starts being loaded until its events are shown*/
+	private boolean isLoadingEvents;
+	/**What to do once the day that is being loaded is shown; null if nothing*/
+	private Runnable whenEventsLoaded;
+	/**Searches for events in the background, so that typing doesn't wait for the titles of the events to be indexed*/
+	private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor((runnable) -> {
+		
+		Thread searchThread = new Thread(runnable, "MainPane search thread");
+		searchThread.setDaemon(true);
+		return searchThread;
+		
+	});
+	/**Counts the searches that have been started. Only the results of the latest one are shown.*/
+	private volatile int latestSearch;
+	
 	/**The calendar object that contains the currently displayed date in the event list*/
 	private Calendar calendar = Calendar.getInstance();	
 	/**Today's date. Since <code>getCurrentDayObject()</code> is called <i>right after</i> <code>calendar</code> was initialized, it will return today's date.*/
 	private Date todayDate = getCurrentDayObject();
 	
-	/**The icon for the large light/dark mode button when the program is in dark mode*/
-	private final ImageIcon lightModeIcon = new ImageIcon(getClass().getResource("/lightmode.png"));
+	/**The colors of overdue and finished events in light mode. Replaced whenever a color changes.*/
+	private EventPalette lightEventPalette = new EventPalette(false);
+	/**The colors of overdue and finished events in dark mode. Replaced whenever a color changes.*/
+	private EventPalette darkEventPalette = new EventPalette(true);
+	/**The palette of the current appearance mode, which is one of the two above*/
+	private EventPalette eventPalette = FileIO.getUseDarkMode() ? darkEventPalette : lightEventPalette;
+	
+	/**The icon for the large light/dark mode button when the program is in dark mode. Icons are only loaded once they are shown.*/
+	private static final String LIGHT_MODE_ICON = "/lightmode.png";
 	/**The icon for the large light/dark mode button when the program is in light mode*/
-	private final ImageIcon darkModeIcon = new ImageIcon(getClass().getResource("/darkmode.png"));
+	private static final String DARK_MODE_ICON = "/darkmode.png";
 	
-	//Objects of the inner classes (pop-up window classes)
-	private final InfoWindow helpWindow = new InfoWindow(HelpWindowType.HELP);
-	private final InfoWindow aboutWindow = new InfoWindow(HelpWindowType.ABOUT);
-	private final PrefWindow prefWindow = new PrefWindow(this);
+	//Objects of the inner classes (pop-up window classes). They are only created the first time that they are needed.
+	private InfoWindow helpWindow;
+	private InfoWindow aboutWindow;
+	private PrefWindow prefWindow;
 	
 	//Enums for the inner classes
 	public enum HelpWindowType {HELP, ABOUT}
@@ -145,6 +191,21 @@ public class MainPane extends JPanel {
 		JPanel listPanel = new JPanel();
 		listPanel.setLayout(new BoxLayout(listPanel, BoxLayout.Y_AXIS)); //This panel will stack vertically.
 		
+		//This panel contains a label and the search field, above the event list header
+		JPanel searchPanel = new JPanel();
+		searchPanel.setLayout(new BoxLayout(searchPanel, BoxLayout.X_AXIS));
+		searchPanel.setAlignmentX(LEFT_ALIGNMENT);
+		searchField = new JTextField();
+		searchField.setMaximumSize(new Dimension(10000, 22));
+		searchPanel.add(new JLabel("Search: "));
+		searchPanel.add(searchField);
+		listPanel.add(searchPanel);
+		listPanel.add(Box.createRigidArea(new Dimension(0, DEFAULT_COMPONENT_SEPARATION)));
+		
+		//The search results don't take the focus, so that the user can keep typing
+		searchPopupMenu = new JPopupMenu();
+		searchPopupMenu.setFocusable(false);
+		
 		//This panel is the event list header, which contains dateField as well as the date forwards/backwards buttons.
 		JPanel eventListHeaderPanel = new JPanel();
 		eventListHeaderPanel.setLayout(new BoxLayout(eventListHeaderPanel, BoxLayout.X_AXIS)); //This panel will stack horizontally.
@@ -168,83 +229,8 @@ public class MainPane extends JPanel {
 		//Tables also need a cell editor to control how their cells are edited. A custom cell editor will be used because ^.
 		//Tables also need a cell renderer to control how their cells are displayed. Custom one will be used ^.
 		
-		//Customized table model that forces the user to select the row in order to edit it AND manages the changing of event titles
-		eventsTableModel = new DefaultTableModel(0, 1) {
-
-			private static final long serialVersionUID = 4086311500581840542L;
-			
-			//Forces the user to select the row to edit
-			@Override
-			public boolean isCellEditable(int row, int column) {
-				
-				//If the cell's row is the selected row, it can be edited. Otherwise, it can't be edited.
-				if(row == eventsTable.getSelectedRow()) {
-					
-					return true;
-					
-				} else {
-					
-					return false;
-					
-				}
-				
-			}
-			
-			//Manages the internal changing of event titles
-			@Override
-			public void setValueAt(Object value, int row, int column) {
-				
-				//Check that this column is for Event objects.
-				if(getColumnClass(column).equals(Event.class)) {
-					
-					//This column is for event objects, so we can get the Event object that is being displayed at this row and column.
-					//Since the Event objects are shallow copied from FileIO to the table model, we can directly modify the Event object.
-					Event currentEvent = (Event) getValueAt(row, column);
-					if(value instanceof String) {
-						
-						//The value that we are receiving is a String.
-						
-						currentEvent.setEventTitle((String) value);
-						
-						//However, if the user edits the event title so that it is blank, we will try to remove it.
-						if((value == null || ((String) value).isEmpty()) && FileIO.removeEvent(currentEvent)) {
-							
-							eventsTableModel.removeRow(row);
-							
-						}
-						
-					} else if(value instanceof Event) {
-						
-						//The value that we are receiving is an Event. This shouldn't happen (as of UI version 1.3), 
-						//but we'll implement code for it anyways because it's easy.
-						
-						Event event = (Event) value;
-						currentEvent.setBeginDate(event.getBeginDate());
-						currentEvent.setEndDate(event.getEndDate());
-						currentEvent.setFinishedDate(event.getFinishedDate());
-						currentEvent.setEventTitle(event.getEventTitle());
-						
-					} else {
-						
-						//The value that we are receiving is not a String or an Event, which is really weird.
-						System.err.println("peepee poopoo");
-						
-					}
-					
-				}
-				
-			}
-			
-			//Returns the class of the objects that a column displays. 
-			//For some reason, the default implementation of it just returns Object no matter the actual class, so we need to implement it properly ourselves.
-			@Override
-			public Class<?> getColumnClass(int columnIndex) {
-				
-				return getValueAt(0, columnIndex).getClass();
-				
-			}
-			
-		};
+		//Customized table model that shows the day's events directly, forces the user to select the row in order to edit it, AND manages the changing of event titles
+		eventsTableModel = new EventTableModel();
 		//Now that we have our customized table model, we can actually create the table.
 		eventsTable = new JTable(eventsTableModel);
 		//Customized editor that only permits editing when the user double clicks (the default editor is different and weird)
@@ -350,11 +336,11 @@ public class MainPane extends JPanel {
 		//Set the button's icon depending if the program is in light mode or dark mode.
 		if(UIManager.getLookAndFeel().getClass().equals(FlatLightLaf.class)) {
 			
-			appearanceButton.setIcon(darkModeIcon);
+			appearanceButton.setIcon(IconCache.getIcon(DARK_MODE_ICON));
 			
 		} else {
 			
-			appearanceButton.setIcon(lightModeIcon);
+			appearanceButton.setIcon(IconCache.getIcon(LIGHT_MODE_ICON));
 			
 		}
 		//Add the appearance button to the bottom panel.
@@ -427,6 +413,52 @@ public class MainPane extends JPanel {
 			
 		});
 		
+		//Search again whenever the text in the search field changes
+		searchField.getDocument().addDocumentListener(new DocumentListener() {
+			
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				
+				showSearchResults();
+				
+			}
+			
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				
+				showSearchResults();
+				
+			}
+			
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				
+				//Only the text's attributes changed
+				
+			}
+			
+		});
+		
+		//Upon hitting enter, go to the best result. Upon hitting escape, hide the results.
+		searchField.addKeyListener(new KeyAdapter() {
+			
+			@Override
+			public void keyPressed(KeyEvent e) {
+				
+				if(e.getKeyCode() == KeyEvent.VK_ENTER && searchPopupMenu.getComponentCount() != 0 && searchPopupMenu.getComponent(0).isEnabled()) {
+					
+					((JMenuItem) searchPopupMenu.getComponent(0)).doClick();
+					
+				} else if(e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+					
+					searchPopupMenu.setVisible(false);
+					
+				}
+				
+			}
+			
+		});
+		
 		//Upon hitting enter, cause dateField to loseFocus, activating its focus listener
 		dateField.addKeyListener(new KeyAdapter() {
 			
@@ -553,14 +585,24 @@ public class MainPane extends JPanel {
 		
 		});
 		
+		//The timer for the hold press event functionality. It doesn't repeat, and it runs on the event dispatch thread, so it can safely change the table.
+		longPressTimer = new Timer(0, (e) -> {
+			
+			//Mark the selected event as done, since the user has held down long enough
+			if(eventsTable.getSelectedRow() != -1) {
+				
+				finishSelectedEvent();
+				
+			}
+			
+		});
+		longPressTimer.setRepeats(false);
+		
 		//Pop up menu allowing to delete event
 		//It should be noted that the JTable doesn't extend the entirety of the JScrollPane for some reason
 		//Also allows user to hold press an event to mark it as done
 		MouseInputAdapter tableMouseInputAdapter = new MouseInputAdapter() {
 		
-			//The thread used for the hold press event functionality
-			private Thread mouseHoldThread = null;
-			
 			//Pop up menu
 			@Override
 			public void mouseClicked(MouseEvent e) {
@@ -618,35 +660,9 @@ public class MainPane extends JPanel {
 				
 				if(SwingUtilities.isLeftMouseButton(e)) {
 					
-					//This thread is a timer that counts the amount of time between when the user starts pressing and when the user releases/drags the mouse
-					mouseHoldThread = new Thread(() -> {
-						
-						long startPressTime = System.currentTimeMillis();
-						int longPressTimeRequirement = FileIO.getLongPressMilliseconds();
-						//Infinite loop
-						while(true) {
-							
-							//Mark the selected event as done, update the list, and exit the loop as soon as the user has held down long enough 
-							if(System.currentTimeMillis() - startPressTime >= longPressTimeRequirement) {
-								
-								finishSelectedEvent();
-								eventsTableModel.fireTableCellUpdated(eventsTable.getSelectedRow(), eventsTable.getSelectedColumn());
-								break;
-								
-							}
-							
-							//Exit the loop if the user releases or drags the mouse
-							if(mouseHoldThread.isInterrupted()) {
-								
-								break;
-								
-							}
-							
-						}
-						
-					});
-					
-					mouseHoldThread.start();
+					//Start counting the amount of time between when the user starts pressing and when the user releases/drags the mouse
+					longPressTimer.setInitialDelay(FileIO.getLongPressMilliseconds());
+					longPressTimer.restart();
 										
 				}
 				
@@ -658,11 +674,8 @@ public class MainPane extends JPanel {
 				
 				super.mouseReleased(e);
 				
-				if(mouseHoldThread != null) {
-					
-					mouseHoldThread.interrupt();
-					
-				}
+				//The user released the mouse before holding down long enough
+				longPressTimer.stop();
 				
 			}
 			
@@ -672,11 +685,8 @@ public class MainPane extends JPanel {
 				
 				super.mouseDragged(e);
 				
-				if(mouseHoldThread != null) {
-					
-					mouseHoldThread.interrupt();
-					
-				}
+				//The user dragged the mouse before holding down long enough
+				longPressTimer.stop();
 				
 			}
 		
@@ -869,7 +879,11 @@ public class MainPane extends JPanel {
 			
 			//Switch the appearance button icon, and get the new look and feel
 			LookAndFeel lookAndFeel = switchAppearanceButtonIcon(isSwitchingToDarkMode);
-			prefWindow.switchAppearanceButtonIcon(isSwitchingToDarkMode);
+			if(prefWindow != null) {
+				
+				prefWindow.switchAppearanceButtonIcon(isSwitchingToDarkMode);
+				
+			}
 			
 			//Actually apply the new look and feel to the program
 			try {
@@ -884,10 +898,8 @@ public class MainPane extends JPanel {
 
 			}
 			
-			//Updating pop-up MENUS (not windows)
-			SwingUtilities.updateComponentTreeUI(eventsPopupMenu);
-			//Updating the windows
-			((ToDoWindow) SwingUtilities.getWindowAncestor(this.getParent())).reloadWindows();
+			//Reload the look and feels of the windows
+			updateLookAndFeel();
 			
 		});
 		
@@ -921,18 +933,8 @@ public class MainPane extends JPanel {
 	 */
 	private String getCurrentDay() {
 		
-		switch(FileIO.getDateFormat()) {
-		
-		case DMY:
-			return calendar.get(Calendar.DAY_OF_MONTH) + "/" + (calendar.get(Calendar.MONTH) + 1) + "/" + calendar.get(Calendar.YEAR);
-		case MDY:
-			return (calendar.get(Calendar.MONTH) + 1) + "/" + calendar.get(Calendar.DAY_OF_MONTH) + "/" + calendar.get(Calendar.YEAR);
-		case YMD:
-			return calendar.get(Calendar.YEAR) + "/" + (calendar.get(Calendar.MONTH) + 1) + "/" + calendar.get(Calendar.DAY_OF_MONTH);
-		default:
-			throw new UnsupportedOperationException();
-		
-		}
+		//The Strings of Dates are cached, so the same String is returned until the day or the date format changes
+		return getCurrentDayObject().toString(FileIO.getDateFormat());
 		
 	}
 	
@@ -960,58 +962,110 @@ public class MainPane extends JPanel {
 	 */
 	private Date getCurrentDayObject() {
 		
-		return new Date(calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH), calendar.get(Calendar.YEAR));
+		return Date.of(calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH), calendar.get(Calendar.YEAR));
 		
 	}
 	
 	/**
 	 * Load a date's events to the event list.<br> 
 	 * Finished events will be shown between their begin and finish dates if the finish date is before the end date.<br>
-	 * Otherwise, events are shown between the begin and end dates.
+	 * Otherwise, events are shown between the begin and end dates.<br>
+	 * The events are found in the background (see <code>loadEvents(Runnable)</code>).
 	 */
 	private void loadEvents() {
 		
-		//Clear all events from the table model.
-		while(eventsTableModel.getRowCount() != 0) {
-			
-			eventsTableModel.removeRow(0);
-			
-		}
+		loadEvents(null);
+		
+	}
+	
+	/**
+	 * Load a date's events to the event list in the background, and then do something once they are shown.<br>
+	 * The events are found on <code>dayLoadExecutor</code> so that the GUI doesn't wait for them. If another date is loaded before they are shown, they are never shown.
+	 * @param whenLoaded What to do on the event dispatch thread once the events are shown, or null. It isn't done if another date is loaded first.
+	 */
+	private void loadEvents(Runnable whenLoaded) {
+		
+		whenEventsLoaded = whenLoaded;
+		startLoadingEvents();
+		
+	}
+	
+	//Starts finding the events of the date that calendar is on. Only the latest load is shown, and loads that haven't started by the time a newer one is started are skipped.
+	private void startLoadingEvents() {
 		
-		//Loop through all available events, and then find the ones that pertain to the date.
-		ArrayList<Event> events = FileIO.getEvents();
 		//The date whose events should be displayed
 		Date viewingDate = getCurrentDayObject();
-		//Every single event saved to the data file will be checked in this for-loop.
-		for(int i = 0; i < events.size(); i++) {
+		int dayLoad = ++latestDayLoad;
+		isLoadingEvents = true;
+		
+		dayLoadExecutor.execute(() -> {
 			
-			//Check if the viewing date is after the event's begin date. Only then will the event have a chance of being shown.
-			if(viewingDate.compareTo(events.get(i).getBeginDate()) >= 0) {
+			//The user already moved on to another date
+			if(dayLoad != latestDayLoad) {
+				
+				return;
 				
-				//The latest date at which this event will be shown in
-				Date latestShowingDate;
+			}
+			
+			//FileIO finds the events that pertain to the date
+			ArrayList<Event> events = FileIO.getEventsShownOn(viewingDate);
+			
+			SwingUtilities.invokeLater(() -> {
 				
-				if(events.get(i).getFinishedDate() != null && events.get(i).getFinishedDate().compareTo(events.get(i).getEndDate()) <= 0) {
+				if(dayLoad == latestDayLoad) {
 					
-					//The event has a finish date, and the finish date is before the event's end date, so the latest showing date would be its finish date.
-					latestShowingDate = events.get(i).getFinishedDate();
+					//The table model shows the events in place of the previous day's events all at once
+					isLoadingEvents = false;
+					eventsTableModel.setEvents(events);
 					
-				} else {
+					if(whenEventsLoaded != null) {
+						
+						Runnable whenLoaded = whenEventsLoaded;
+						whenEventsLoaded = null;
+						whenLoaded.run();
+						
+					}
 					
-					//The event has no finish date, so the latest showing date would be its end date.
-					latestShowingDate = events.get(i).getEndDate();
+				}
+				
+			});
+			
+		});
+		
+		//FileIO keeps the events of the days that were looked at last, so finding the events of the days around this one now lets the user go to them without waiting
+		//The closest days are found first, and the rest are skipped once another day is loaded. Days that would need archived events are left until they are looked at.
+		for(int distance = 1; distance <= PREFETCHED_DAYS; distance++) {
+			
+			Date nextDate = Date.ofEpochDay(viewingDate.toEpochDay() + distance);
+			Date previousDate = Date.ofEpochDay(viewingDate.toEpochDay() - distance);
+			dayLoadExecutor.execute(() -> {
+				
+				if(dayLoad == latestDayLoad) {
+					
+					FileIO.prefetchEventsShownOn(nextDate);
 					
 				}
 				
-				//At last, if the viewing date is before the latest showing date (and it is already known that the viewing date comes after the begin date),
-				//add the event to the table model.
-				if(viewingDate.compareTo(latestShowingDate) <= 0) {
+				if(dayLoad == latestDayLoad) {
 					
-					eventsTableModel.addRow(new Event[] {events.get(i)});
+					FileIO.prefetchEventsShownOn(previousDate);
 					
 				}
 				
-			}
+			});
+			
+		}
+		
+	}
+	
+	/**
+	 * Loads the events again if they are still being found, since they may have been found before the event list was changed
+	 */
+	private void reloadEventsIfLoading() {
+		
+		if(isLoadingEvents) {
+			
+			startLoadingEvents();
 			
 		}
 		
@@ -1028,7 +1082,7 @@ public class MainPane extends JPanel {
 		//Add it FileIO
 		FileIO.addEvent(newEvent);
 		//Add it to the table
-		eventsTableModel.addRow(new Event[] {newEvent});
+		eventsTableModel.addEvent(newEvent);
 		//Clear the text box
 		eventField.setText("");
 		
@@ -1050,42 +1104,34 @@ public class MainPane extends JPanel {
 		if(FileIO.removeEvent(selectedEvent)) {
 			
 			//If the event was successfully removed, then remove from display
-			eventsTableModel.removeRow(eventsTable.getSelectedRow());
+			eventsTableModel.removeEvent(eventsTable.getSelectedRow());
 			
 		}
 		
 	}
 	
 	/**
-	 * Swap two rows
+	 * Swap two neighbouring rows
 	 * @param row1 The index of row 1
 	 * @param row2 The index of row 2
 	 * @throws UnsupportedOperationException When there are more than 1 columns in the table
 	 */
 	private void swapRows(int row1, int row2) {
 		
-		//Go column by column, replacing the value at row 1 with the value at row 2, and then replacing the value at row 2 with the original row 1 value
-		for(int col = 0; col < eventsTableModel.getColumnCount(); col++) {
+		//Note that column 0 is the Event column (and as of UI version 1.3, this is the only column)
+		if(eventsTableModel.getColumnCount() != 1) {
 			
-			//Note that column 0 is the Event column (and as of UI version 1.3, this is the only column)
-			if(col == 0) {
-				
-				//Create a new Event that was the original row 1 value. This copy is a deep copy so that it is insulated from the following change
-				Event originalRow1Value = new Event((Event) eventsTableModel.getValueAt(row1, col));
-				//Change the row 1 value to the row 2 value
-				eventsTableModel.setValueAt(eventsTableModel.getValueAt(row2, col), row1, col);
-				//Change the row 2 value to the original row 1 value
-				eventsTableModel.setValueAt(originalRow1Value, row2, col);
-				
-			} else {
-				
-				//Since other columns aren't implemented yet, throw an UnsupportedOperationException
-				throw new UnsupportedOperationException();
-				
-			}
+			//Since other columns aren't implemented yet, throw an UnsupportedOperationException
+			throw new UnsupportedOperationException();
 			
 		}
 		
+		//Swap the positions of the events in FileIO so that the new order is saved
+		FileIO.swapEvents((Event) eventsTableModel.getValueAt(row1, 0), (Event) eventsTableModel.getValueAt(row2, 0));
+		
+		//Swap the rows in the table
+		eventsTableModel.swapEvents(row1, row2);
+		
 	}
 	
 	/**
@@ -1094,7 +1140,8 @@ public class MainPane extends JPanel {
 	private void finishSelectedEvent() {
 		
 		Event selectedEvent = (Event) eventsTableModel.getValueAt(eventsTable.getSelectedRow(), eventsTable.getSelectedColumn());
-		selectedEvent.setFinishedDate(todayDate);
+		FileIO.finishEvent(selectedEvent, todayDate);
+		eventsTableModel.updateEvent(eventsTable.getSelectedRow());
 		
 	}
 	
@@ -1104,7 +1151,8 @@ public class MainPane extends JPanel {
 	private void unfinishSelectedEvent() {
 		
 		Event selectedEvent = (Event) eventsTableModel.getValueAt(eventsTable.getSelectedRow(), eventsTable.getSelectedColumn());
-		selectedEvent.setFinishedDate(null);
+		FileIO.unfinishEvent(selectedEvent);
+		eventsTableModel.updateEvent(eventsTable.getSelectedRow());
 		
 	}
 	
@@ -1118,14 +1166,7 @@ public class MainPane extends JPanel {
 		if(targetDate != null) {
 			
 			//The date that was in dateField was valid.
-			
-			calendar.set(Calendar.YEAR, targetDate.getYear());
-			calendar.set(Calendar.MONTH, targetDate.getMonth() - 1);
-			calendar.set(Calendar.DAY_OF_MONTH, targetDate.getDay());
-			loadEvents(); //Reload event display
-			
-			beginDateField.setText(dateField.getText());
-			endDateField.setText(dateField.getText());
+			moveToDate(targetDate);
 			
 			//Put the focus on the event field, both to signify that the date has been changed and for user convenience
 			eventField.requestFocus();
@@ -1140,6 +1181,132 @@ public class MainPane extends JPanel {
 		
 	}
 	
+	/**
+	 * Set the date whose events should be displayed, and show it in the date fields
+	 * @param date The date
+	 */
+	private void moveToDate(Date date) {
+		
+		moveToDate(date, null);
+		
+	}
+	
+	/**
+	 * Set the date whose events should be displayed, show it in the date fields, and then do something once its events are shown
+	 * @param date The date
+	 * @param whenLoaded What to do once the events are shown, or null (see <code>loadEvents(Runnable)</code>)
+	 */
+	private void moveToDate(Date date, Runnable whenLoaded) {
+		
+		calendar.set(Calendar.YEAR, date.getYear());
+		calendar.set(Calendar.MONTH, date.getMonth() - 1);
+		calendar.set(Calendar.DAY_OF_MONTH, date.getDay());
+		loadEvents(whenLoaded); //Reload event display
+		
+		String currentDayStr = getCurrentDay();
+		dateField.setText(currentDayStr);
+		beginDateField.setText(currentDayStr);
+		endDateField.setText(currentDayStr);
+		
+	}
+	
+	/**
+	 * Search for the events whose titles contain the words in <code>searchField</code> on <code>searchExecutor</code>, and show them below it once they are found.<br>
+	 * If the text changes before then, only the results of the latest text are shown.
+	 */
+	private void showSearchResults() {
+		
+		int search = ++latestSearch;
+		String query = searchField.getText();
+		
+		if(query.trim().isEmpty()) {
+			
+			searchPopupMenu.setVisible(false);
+			searchPopupMenu.removeAll();
+			return;
+			
+		}
+		
+		searchExecutor.execute(() -> {
+			
+			//The user already typed something else
+			if(search != latestSearch) {
+				
+				return;
+				
+			}
+			
+			ArrayList<Event> foundEvents = FileIO.searchEvents(query, MAX_SEARCH_RESULTS);
+			
+			SwingUtilities.invokeLater(() -> {
+				
+				if(search == latestSearch) {
+					
+					showFoundEvents(foundEvents);
+					
+				}
+				
+			});
+			
+		});
+		
+	}
+	
+	/**
+	 * Show the events that were found by a search below <code>searchField</code>, in place of the previous results
+	 * @param foundEvents The <i>exact</i> Event objects that were found, best match first
+	 */
+	private void showFoundEvents(ArrayList<Event> foundEvents) {
+		
+		searchPopupMenu.setVisible(false);
+		searchPopupMenu.removeAll();
+		
+		for(Event event : foundEvents) {
+			
+			//Show the dates of each event, so that events with the same title can be told apart
+			JMenuItem resultMenuItem = new JMenuItem(event.getEventTitle() + "  (" + event.getBeginDate().toString(FileIO.getDateFormat()) + " - " + event.getEndDate().toString(FileIO.getDateFormat()) + ")");
+			resultMenuItem.addActionListener((e) -> goToEvent(event));
+			searchPopupMenu.add(resultMenuItem);
+			
+		}
+		
+		if(foundEvents.isEmpty()) {
+			
+			JMenuItem noResultsMenuItem = new JMenuItem("No events found");
+			noResultsMenuItem.setEnabled(false);
+			searchPopupMenu.add(noResultsMenuItem);
+			
+		}
+		
+		searchPopupMenu.show(searchField, 0, searchField.getHeight());
+		
+	}
+	
+	/**
+	 * Go to the begin date of an event that was found by a search, and select it in the event list
+	 * @param event The <i>exact</i> Event object
+	 */
+	private void goToEvent(Event event) {
+		
+		searchPopupMenu.setVisible(false);
+		moveToDate(event.getBeginDate(), () -> {
+			
+			for(int row = 0; row < eventsTableModel.getRowCount(); row++) {
+				
+				if(eventsTableModel.getValueAt(row, 0) == event) {
+					
+					eventsTable.setRowSelectionInterval(row, row);
+					eventsTable.scrollRectToVisible(eventsTable.getCellRect(row, 0, true));
+					break;
+					
+				}
+				
+			}
+			
+		});
+		
+	}
+	
 	/**
 	 * Set the appearance button icon to the current 
 	 * @param button The button
@@ -1154,19 +1321,19 @@ public class MainPane extends JPanel {
 			
 			//Switching to dark mode
 			
-			//Set the new look and feel to FlatDarkLaf (dark mode)
-			lookAndFeel = new FlatDarkLaf();
+			//Set the new look and feel to FlatDarkLaf (dark mode), which is only created the first time
+			lookAndFeel = ToDoWindow.getLookAndFeel(true);
 			//Update the icon so that it looks like it allows the user to switch back to light mode
-			appearanceButton.setIcon(new ImageIcon(getClass().getResource("/lightmode.png")));
+			appearanceButton.setIcon(IconCache.getIcon(LIGHT_MODE_ICON));
 			
 		} else {
 			
 			//Switching to light mode
 			
-			//Set the new look and feel to FlatLightLaf (light mode)
-			lookAndFeel = new FlatLightLaf();
+			//Set the new look and feel to FlatLightLaf (light mode), which is only created the first time
+			lookAndFeel = ToDoWindow.getLookAndFeel(false);
 			//Update the icon so that it looks like it allows the user to switch back to dark mode
-			appearanceButton.setIcon(new ImageIcon(getClass().getResource("/darkmode.png")));
+			appearanceButton.setIcon(IconCache.getIcon(DARK_MODE_ICON));
 			
 		}
 		
@@ -1184,28 +1351,46 @@ public class MainPane extends JPanel {
 	}
 	
 	/**
-	 * @return The help window connected to this pane
+	 * @return The help window connected to this pane, which is created the first time
 	 */
 	public InfoWindow getHelpWindow() {
 		
+		if(helpWindow == null) {
+			
+			helpWindow = new InfoWindow(HelpWindowType.HELP);
+			
+		}
+		
 		return helpWindow;
 		
 	}
 	
 	/**
-	 * @return The about window connected to this pane
+	 * @return The about window connected to this pane, which is created the first time
 	 */
 	public InfoWindow getAboutWindow() {
 		
+		if(aboutWindow == null) {
+			
+			aboutWindow = new InfoWindow(HelpWindowType.ABOUT);
+			
+		}
+		
 		return aboutWindow;
 		
 	}
 	
 	/**
-	 * @return The preference window connected to this pane
+	 * @return The preference window connected to this pane, which is created the first time
 	 */
 	public PrefWindow getPrefWindow() {
 		
+		if(prefWindow == null) {
+			
+			prefWindow = new PrefWindow(this);
+			
+		}
+		
 		return prefWindow;
 		
 	}
@@ -1215,9 +1400,12 @@ public class MainPane extends JPanel {
 	 */
 	public void updateLookAndFeel() {
 		
+		//The event colors depend on the appearance mode. Both palettes are already made, so this only picks one.
+		eventPalette = FileIO.getUseDarkMode() ? darkEventPalette : lightEventPalette;
 		//Updating pop-up MENUS (not windows)
 		SwingUtilities.updateComponentTreeUI(eventsPopupMenu);
-		//Updating the windows
+		SwingUtilities.updateComponentTreeUI(searchPopupMenu);
+		//Updating the windows that are showing. The others are updated when they are shown.
 		((ToDoWindow) SwingUtilities.getWindowAncestor(this.getParent())).reloadWindows();
 		
 	}
@@ -1225,16 +1413,227 @@ public class MainPane extends JPanel {
 	public void updateColorsAndDateFormats() {
 		
 		//Updating the colors in the table
+		lightEventPalette = new EventPalette(false);
+		darkEventPalette = new EventPalette(true);
+		eventPalette = FileIO.getUseDarkMode() ? darkEventPalette : lightEventPalette;
 		eventsTableModel.fireTableDataChanged();
 		//Reloading all of the date fields
-		dateField.setText(getCurrentDay());
-		beginDateField.setText(getCurrentDay());
-		endDateField.setText(getCurrentDay());
+		String currentDayStr = getCurrentDay();
+		dateField.setText(currentDayStr);
+		beginDateField.setText(currentDayStr);
+		endDateField.setText(currentDayStr);
 		
 	}
 	
 	/**
-	 * A custom event cell renderer because the default one is bad 
+	 * A custom table model that shows a day's events directly from the list that FileIO found them in, instead of copying each one into a row like DefaultTableModel.<br>
+	 * Switching to another day replaces the whole list at once and tells the table once, so it takes the same time no matter how many events the day has.<br>
+	 * Whether each event is overdue or finished is also kept for every row, so that the renderer doesn't have to check the event every time it paints a cell.<br>
+	 * The events shown may be from the previous day while another day is being loaded, so changing them loads that day again in case its events were found before the change.
+	 * @author James
+	 */
+	private class EventTableModel extends AbstractTableModel {
+		
+		private static final long serialVersionUID = 4086311500581840542L;
+		
+		//The statuses of events
+		public static final byte NORMAL = 0;
+		public static final byte OVERDUE = 1;
+		public static final byte FINISHED = 2;
+		
+		/**The events that are shown, one per row*/
+		private ArrayList<Event> events = new ArrayList<Event>();
+		/**The status of the event at each row*/
+		private byte[] statuses = new byte[0];
+		
+		/**
+		 * Shows a new list of events in place of the current one
+		 * @param events The events. The list is used directly, not copied, so it shouldn't be changed anywhere else.
+		 */
+		public void setEvents(ArrayList<Event> events) {
+			
+			this.events = events;
+			statuses = new byte[events.size()];
+			for(int row = 0; row < statuses.length; row++) {
+				
+				statuses[row] = findStatus(events.get(row));
+				
+			}
+			fireTableDataChanged();
+			
+		}
+		
+		/**
+		 * Adds an event at the bottom of the table
+		 * @param event The event
+		 */
+		public void addEvent(Event event) {
+			
+			events.add(event);
+			statuses = Arrays.copyOf(statuses, events.size());
+			statuses[events.size() - 1] = findStatus(event);
+			fireTableRowsInserted(events.size() - 1, events.size() - 1);
+			reloadEventsIfLoading();
+			
+		}
+		
+		/**
+		 * Removes the event at a row from the table
+		 * @param row The row
+		 */
+		public void removeEvent(int row) {
+			
+			events.remove(row);
+			System.arraycopy(statuses, row + 1, statuses, row, events.size() - row);
+			fireTableRowsDeleted(row, row);
+			reloadEventsIfLoading();
+			
+		}
+		
+		/**
+		 * Swaps the events at two rows of the table
+		 * @param row1 The index of row 1
+		 * @param row2 The index of row 2
+		 */
+		public void swapEvents(int row1, int row2) {
+			
+			events.set(row1, events.set(row2, events.get(row1)));
+			byte status = statuses[row1];
+			statuses[row1] = statuses[row2];
+			statuses[row2] = status;
+			fireTableRowsUpdated(Math.min(row1, row2), Math.max(row1, row2));
+			reloadEventsIfLoading();
+			
+		}
+		
+		/**
+		 * Shows the event at a row again after it was finished or unfinished
+		 * @param row The row
+		 */
+		public void updateEvent(int row) {
+			
+			statuses[row] = findStatus(events.get(row));
+			fireTableRowsUpdated(row, row);
+			reloadEventsIfLoading();
+			
+		}
+		
+		/**
+		 * @param row The row
+		 * @return The status of the event at the row: <code>NORMAL</code>, <code>OVERDUE</code>, or <code>FINISHED</code>
+		 */
+		public byte getEventStatus(int row) {
+			
+			return statuses[row];
+			
+		}
+		
+		//Finds whether an event is overdue today, finished, or neither
+		private byte findStatus(Event event) {
+			
+			if(event.isOverdue(todayDate)) {
+				
+				return OVERDUE;
+				
+			} else if(event.getFinishedDate() != null) {
+				
+				return FINISHED;
+				
+			}
+			
+			return NORMAL;
+			
+		}
+		
+		@Override
+		public int getRowCount() {
+			
+			return events.size();
+			
+		}
+		
+		//There is only one column, which is the Event column (as of UI version 1.3)
+		@Override
+		public int getColumnCount() {
+			
+			return 1;
+			
+		}
+		
+		@Override
+		public Object getValueAt(int row, int column) {
+			
+			return events.get(row);
+			
+		}
+		
+		//Returns the class of the objects that a column displays, so that the table uses the custom renderer and editor for Event objects.
+		//This doesn't look at the rows, so it also works when the table is empty.
+		@Override
+		public Class<?> getColumnClass(int columnIndex) {
+			
+			return Event.class;
+			
+		}
+		
+		//Forces the user to select the row to edit
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			
+			//If the cell's row is the selected row, it can be edited. Otherwise, it can't be edited.
+			return row == eventsTable.getSelectedRow();
+			
+		}
+		
+		//Manages the internal changing of event titles
+		@Override
+		public void setValueAt(Object value, int row, int column) {
+			
+			//Since the Event objects are shallow copied from FileIO to the table model, we can directly modify the Event object.
+			Event currentEvent = events.get(row);
+			if(value instanceof String) {
+				
+				//The value that we are receiving is a String.
+				
+				FileIO.editEventTitle(currentEvent, (String) value);
+				
+				//However, if the user edits the event title so that it is blank, we will try to remove it.
+				if(((String) value).isEmpty() && FileIO.removeEvent(currentEvent)) {
+					
+					removeEvent(row);
+					
+				} else {
+					
+					fireTableCellUpdated(row, column);
+					
+				}
+				
+			} else if(value instanceof Event) {
+				
+				//The value that we are receiving is an Event. This shouldn't happen (as of UI version 1.3), 
+				//but we'll implement code for it anyways because it's easy.
+				
+				Event event = (Event) value;
+				currentEvent.setBeginDate(event.getBeginDate());
+				currentEvent.setEndDate(event.getEndDate());
+				currentEvent.setFinishedDate(event.getFinishedDate());
+				currentEvent.setEventTitle(event.getEventTitle());
+				updateEvent(row);
+				
+			} else {
+				
+				//The value that we are receiving is not a String or an Event, which is really weird.
+				System.err.println("peepee poopoo");
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * A custom event cell renderer because the default one is bad<br>
+	 * The table calls it for every cell that it paints, so it only uses colors from <code>eventPalette</code> and statuses from <code>eventsTableModel</code> instead of creating anything.
 	 * @author James
 	 */
 	private class EventCellRenderer extends DefaultTableCellRenderer {
@@ -1245,8 +1644,6 @@ public class MainPane extends JPanel {
 		@Override
 		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
 
-			//The RGB of the cell's background
-			int[] bgRGB;
 			//The cell renderer component itself
 			Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 			
@@ -1271,72 +1668,66 @@ public class MainPane extends JPanel {
 			}
 			
 			//If the code reaches here, then the value is an Event.
-			//The component's background will be colored depending if it's overdue or finished or if the program uses light or dark mode.
-			//The component will be modified in this big if-else statement, and after it the component (now modified) will be returned 
+			//The component's background will be colored depending if it's overdue or finished, using the colors of the current appearance mode.
+			switch(eventsTableModel.getEventStatus(row)) {
 			
-			if(((Event) value).isOverdue(todayDate)) {
-				
-				//The event is overdue today.
-				
-				if(FileIO.getUseDarkMode()) {
-					
-					bgRGB = FileIO.getDarkOverdueEventColorRGB();
-					
-				} else {
-					
-					bgRGB = FileIO.getLightOverdueEventColorRGB();
-					
-				}
-				
-				component.setBackground(new Color(bgRGB[0], bgRGB[1], bgRGB[2]));
-				
-			} else {
-				
-				//The event is not overdue today, meaning that 
-				//the event is finished, OR its end date isn't before today
+			case EventTableModel.OVERDUE:
+				component.setBackground(eventPalette.overdueColor);
+				break;
+			case EventTableModel.FINISHED:
+				//The event is finished. Its end date may have been before today, but that doesn't matter because the event is finished.
+				component.setBackground(eventPalette.finishedColor);
+				break;
+			default:
+				//The event has no special coloring
+				component.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+				break;
+			
+			}
+			
+			//Setting the tool tip registers the component with the tool tip manager again, so it is only set when the title is different
+			String eventTitle = ((Event) value).getEventTitle();
+			if(!eventTitle.equals(getToolTipText())) {
 				
-				if(((Event) value).getFinishedDate() == null) {
-					
-					//Since the event isn't finished, its end date must not have been before today. 
-					//Therefore, the component will have no special coloring
-					
-					if(isSelected) {
-						
-						component.setBackground(table.getSelectionBackground());
-						
-					} else {
-						
-						component.setBackground(table.getBackground());
-						
-					}
-					
-				} else {
-					
-					//The event is finished. This means that the end date must have been before today, but that doesn't matter because the event is finished.
-					if(FileIO.getUseDarkMode()) {
-						
-						bgRGB = FileIO.getDarkFinishedEventColorRGB();
-						
-					} else {
-						
-						bgRGB = FileIO.getLightFinishedEventColorRGB();
-						
-					}
-					
-					component.setBackground(new Color(bgRGB[0], bgRGB[1], bgRGB[2]));
-					
-				}
+				setToolTipText(eventTitle);
 				
 			}
 			
-			((JComponent) component).setToolTipText(((Event) value).getEventTitle());
-			
 			return component;
 
 		}
 		
 	}
 	
+	/**
+	 * The colors that events are shown with in light or dark mode.<br>
+	 * FileIO gives out copies of its colors, so they are made into Color objects once here instead of every time a cell is painted.
+	 * @author James
+	 */
+	private static class EventPalette {
+		
+		private final Color overdueColor;
+		private final Color finishedColor;
+		
+		/**
+		 * Takes the colors from FileIO for an appearance mode
+		 * @param usesDarkMode True for the colors of dark mode, false for the colors of light mode
+		 */
+		private EventPalette(boolean usesDarkMode) {
+			
+			overdueColor = toColor(usesDarkMode ? FileIO.getDarkOverdueEventColorRGB() : FileIO.getLightOverdueEventColorRGB());
+			finishedColor = toColor(usesDarkMode ? FileIO.getDarkFinishedEventColorRGB() : FileIO.getLightFinishedEventColorRGB());
+			
+		}
+		
+		private static Color toColor(int[] rgb) {
+			
+			return new Color(rgb[0], rgb[1], rgb[2]);
+			
+		}
+		
+	}
+	
 	/**
 	 * A pop up window that provides information about the program
 	 * @author James
@@ -1365,7 +1756,7 @@ public class MainPane extends JPanel {
 				+ "IO version: " + FileIO.IO_VERSION + "<br></br>"
 				+ "File version: " + FileIO.getOriginalFileVersion() + "<br></br>"
 				+ "</html>";
-		private final ImageIcon windowIcon = new ImageIcon(getClass().getResource("/todoicon.png"));
+		private final ImageIcon windowIcon = IconCache.getIcon("/todoicon.png");
 		private final Font titleFont = new Font("Segoe UI Semibold", Font.PLAIN, 24);
 		
 		/**
@@ -1444,6 +1835,8 @@ public class MainPane extends JPanel {
 			add(mainPanel);
 			add(Box.createRigidArea(new Dimension(GAP_FROM_WINDOW_EDGES, 0)));
 			
+			ToDoWindow.windowCreated(this);
+			
 		}
 		
 	}
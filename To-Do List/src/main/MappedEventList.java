@@ -0,0 +1,360 @@
+package main;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import support.Date;
+import support.Event;
+
+/**
+ *
+ * A list of events that is backed by a <code>MappedEventStore</code>.<br>
+ * Events are only read from the store the first time they are accessed, and the same Event object is returned every time after that,
+ * so FileIO can still look up events by their exact objects. Changes to the list are kept in memory, and the store itself is never modified.<br>
+ * The position of every record in the list is kept, so that an event that is found in the store by its ID can be found in the list without searching it.
+ *
+ * @author James
+ */
+public class MappedEventList extends AbstractList<Event> implements RandomAccess {
+	
+	/**The store that the events were read from*/
+	private final MappedEventStore store;
+	/**The events that have been read from the store, by the index of their record; null for events that haven't been read yet*/
+	private final Event[] recordEvents;
+	/**The events that were added; null for events that are in the store*/
+	private Event[] events;
+	/**The index in the store of each event; -1 for events that were added*/
+	private int[] recordIndices;
+	/**The index in this list of each record's event, by the index of the record; -1 for the records whose events were removed from this list*/
+	private final int[] recordPositions;
+	private int size;
+	
+	/**
+	 * Constructs a list with every event in a store, without reading any of them
+	 * @param store The store
+	 */
+	public MappedEventList(MappedEventStore store) {
+		
+		this.store = store;
+		
+		size = store.size();
+		recordEvents = new Event[size];
+		recordPositions = new int[size];
+		events = new Event[size];
+		recordIndices = new int[size];
+		for(int i = 0; i < size; i++) {
+			
+			recordIndices[i] = i;
+			recordPositions[i] = i;
+			
+		}
+		
+	}
+	
+	/**
+	 * @return The store that the events are read from
+	 */
+	public MappedEventStore getStore() {
+		
+		return store;
+		
+	}
+	
+	/**
+	 * @param index The index of the event in this list
+	 * @return The index of the event's record in the store, or -1 if the event was added
+	 */
+	public int getRecordIndex(int index) {
+		
+		rangeCheck(index);
+		
+		return recordIndices[index];
+		
+	}
+	
+	/**
+	 * Gets the index in the store of an event that hasn't been read yet. Events that have been read may have been changed since, so they need to be written from their objects.
+	 * @param index The index of the event in this list
+	 * @return The index of the event's record in the store, or -1 if the event was read or added
+	 */
+	public int getUnreadRecordIndex(int index) {
+		
+		rangeCheck(index);
+		
+		return getCachedEvent(index) == null ? recordIndices[index] : -1;
+		
+	}
+	
+	/**
+	 * Gets the event of a record in the store, reading it if it hasn't been read yet. This is the same Event object that <code>get</code> returns for the event.
+	 * @param recordIndex The index of the record in the store
+	 * @return The event
+	 */
+	public Event getRecordEvent(int recordIndex) {
+		
+		if(recordEvents[recordIndex] == null) {
+			
+			recordEvents[recordIndex] = store.readEvent(recordIndex);
+			
+		}
+		
+		return recordEvents[recordIndex];
+		
+	}
+	
+	/**
+	 * @param recordIndex The index of a record in the store
+	 * @return The index in this list of the record's event, or -1 if the event was removed from this list
+	 */
+	public int getRecordPosition(int recordIndex) {
+		
+		return recordPositions[recordIndex];
+		
+	}
+	
+	/**
+	 * Swaps the positions of two events. Unlike swapping them with <code>set</code>, events that are store records stay records, so they can still be found by <code>getRecordIndex</code>.
+	 * @param index1 The index of one event
+	 * @param index2 The index of the other event
+	 */
+	public void swap(int index1, int index2) {
+		
+		rangeCheck(index1);
+		rangeCheck(index2);
+		
+		Event event = events[index1];
+		events[index1] = events[index2];
+		events[index2] = event;
+		
+		int recordIndex = recordIndices[index1];
+		recordIndices[index1] = recordIndices[index2];
+		recordIndices[index2] = recordIndex;
+		
+		setRecordPosition(index1);
+		setRecordPosition(index2);
+		
+	}
+	
+	/**
+	 * Checks if an event is shown on a date. Events that haven't been read yet are checked directly in the store, without being read.
+	 * @param index The index of the event
+	 * @param epochDay The epoch day of the date
+	 * @return True if the event is shown on the date
+	 */
+	public boolean isShownOn(int index, int epochDay) {
+		
+		rangeCheck(index);
+		
+		Event event = getCachedEvent(index);
+		
+		if(event == null) {
+			
+			return store.isShownOn(recordIndices[index], epochDay);
+			
+		}
+		
+		return event.isShownOn(Date.ofEpochDay(epochDay));
+		
+	}
+	
+	/**
+	 * Gets the epoch day of an event's finished date without reading the event
+	 * @param index The index of the event
+	 * @return The epoch day, or <code>MappedEventStore.NOT_FINISHED</code> if the event isn't finished
+	 */
+	public int getFinishedEpochDay(int index) {
+		
+		rangeCheck(index);
+		
+		Event event = getCachedEvent(index);
+		
+		if(event == null) {
+			
+			return store.getFinishedEpochDay(recordIndices[index]);
+			
+		}
+		
+		Date finishedDate = event.getFinishedDate();
+		return finishedDate == null ? MappedEventStore.NOT_FINISHED : finishedDate.toEpochDay();
+		
+	}
+	
+	@Override
+	public Event get(int index) {
+		
+		rangeCheck(index);
+		
+		return recordIndices[index] == -1 ? events[index] : getRecordEvent(recordIndices[index]);
+		
+	}
+	
+	@Override
+	public Event set(int index, Event event) {
+		
+		Event previousEvent = get(index);
+		
+		if(recordIndices[index] != -1) {
+			
+			recordPositions[recordIndices[index]] = -1;
+			
+		}
+		events[index] = event;
+		recordIndices[index] = -1;
+		
+		return previousEvent;
+		
+	}
+	
+	@Override
+	public void add(int index, Event event) {
+		
+		if(index < 0 || index > size) {
+			
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			
+		}
+		
+		if(size == events.length) {
+			
+			int newCapacity = Math.max(16, size + (size >> 1));
+			events = Arrays.copyOf(events, newCapacity);
+			recordIndices = Arrays.copyOf(recordIndices, newCapacity);
+			
+		}
+		
+		System.arraycopy(events, index, events, index + 1, size - index);
+		System.arraycopy(recordIndices, index, recordIndices, index + 1, size - index);
+		events[index] = event;
+		recordIndices[index] = -1;
+		size++;
+		modCount++;
+		
+		for(int i = index + 1; i < size; i++) {
+			
+			setRecordPosition(i);
+			
+		}
+		
+	}
+	
+	@Override
+	public Event remove(int index) {
+		
+		Event removedEvent = get(index);
+		
+		if(recordIndices[index] != -1) {
+			
+			recordPositions[recordIndices[index]] = -1;
+			
+		}
+		System.arraycopy(events, index + 1, events, index, size - index - 1);
+		System.arraycopy(recordIndices, index + 1, recordIndices, index, size - index - 1);
+		size--;
+		events[size] = null;
+		modCount++;
+		
+		for(int i = index; i < size; i++) {
+			
+			setRecordPosition(i);
+			
+		}
+		
+		return removedEvent;
+		
+	}
+	
+	/**
+	 * Removes every empty slot, which is left by setting an event to null, in one pass. The records that are left stay records, and no events are read.
+	 */
+	public void removeEmptySlots() {
+		
+		int newSize = 0;
+		for(int i = 0; i < size; i++) {
+			
+			if(recordIndices[i] != -1 || events[i] != null) {
+				
+				events[newSize] = events[i];
+				recordIndices[newSize] = recordIndices[i];
+				setRecordPosition(newSize);
+				newSize++;
+				
+			}
+			
+		}
+		
+		Arrays.fill(events, newSize, size, null);
+		size = newSize;
+		modCount++;
+		
+	}
+	
+	/**
+	 * Finds the exact Event object. Only events that have been read or added are checked, since an event that was never read can't be the same object.
+	 */
+	@Override
+	public int indexOf(Object object) {
+		
+		if(object == null) {
+			
+			return -1;
+			
+		}
+		
+		for(int i = 0; i < size; i++) {
+			
+			if(getCachedEvent(i) == object) {
+				
+				return i;
+				
+			}
+			
+		}
+		
+		return -1;
+		
+	}
+	
+	@Override
+	public boolean contains(Object object) {
+		
+		return indexOf(object) != -1;
+		
+	}
+	
+	@Override
+	public int size() {
+		
+		return size;
+		
+	}
+	
+	//Gets an event without reading it; null if it hasn't been read yet
+	private Event getCachedEvent(int index) {
+		
+		return recordIndices[index] == -1 ? events[index] : recordEvents[recordIndices[index]];
+		
+	}
+	
+	//Keeps the position of the record at an index, if there is one
+	private void setRecordPosition(int index) {
+		
+		if(recordIndices[index] != -1) {
+			
+			recordPositions[recordIndices[index]] = index;
+			
+		}
+		
+	}
+	
+	private void rangeCheck(int index) {
+		
+		if(index < 0 || index >= size) {
+			
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+			
+		}
+		
+	}
+	
+}
@@ -0,0 +1,436 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import support.Date;
+import support.Event;
+
+/**
+ *
+ * A file of events that is read lazily through memory mapping, so that opening it takes the same amount of time no matter how many events it contains.<br>
+ * Every event is stored as a fixed-width record, so the record of any event can be found directly from its index. The titles are stored separately in a string heap, which the records point into.<br><br>
+ * The file is laid out as:
+ * <ol>
+ * <li>A header: the store version (int), the number of records (int), the offset of the string heap (long), and the length of the string heap (long)</li>
+ * <li>The records: the epoch days of the begin, end, and finished dates (<code>NOT_FINISHED</code> if there is no finished date), and the offset and length of the title in the string heap, 
+ * which are ints, and the event's ID (long)</li>
+ * <li>The string heap: the titles as UTF-8 bytes</li>
+ * </ol>
+ * A store is never modified after it is written. FileIO writes a new store every time it saves.<br>
+ * Version 1 stores were written before events had IDs, so their records are 8 bytes shorter. Their events are given IDs with <code>assignEventIds</code> when they are opened.
+ *
+ * @author James
+ */
+public class MappedEventStore {
+	
+	/**The version of the store's format*/
+	public static final int STORE_VERSION = 2;
+	/**The finished epoch day of events that aren't finished*/
+	public static final int NOT_FINISHED = Integer.MIN_VALUE;
+	
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+	private static final int RECORD_SIZE = 4 * 5 + 8;
+	private static final int VERSION_1_RECORD_SIZE = 4 * 5;
+	
+	//The offsets of the fields within a record
+	private static final int BEGIN_DAY = 0;
+	private static final int END_DAY = 4;
+	private static final int FINISHED_DAY = 8;
+	private static final int TITLE_OFFSET = 12;
+	private static final int TITLE_LENGTH = 16;
+	private static final int EVENT_ID = 20;
+	
+	/**The file of this store*/
+	private final File file;
+	/**The number of records*/
+	private final int size;
+	/**The size of each record, which depends on the store's version*/
+	private final int recordSize;
+	/**For version 1 stores: the ID of the first record's event. The other records' events have the IDs after it, in order.*/
+	private long firstEventId;
+	/**The IDs of the events, which are looked up by <code>findRecord</code>, in an open-addressing hash table; null until it is needed*/
+	private long[] idTable;
+	/**The index of the record of each ID in <code>idTable</code>*/
+	private int[] idTableRecords;
+	/**The mapped records*/
+	private final MappedByteBuffer records;
+	/**The mapped string heap*/
+	private final MappedByteBuffer heap;
+	
+	/**
+	 * Opens a store by mapping its file into memory. None of the events are actually read until they are needed.
+	 * @param file The file of the store
+	 * @throws IOException If the file cannot be mapped, or if it isn't a store
+	 */
+	public MappedEventStore(File file) throws IOException {
+		
+		this.file = file;
+		
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		
+		try {
+			
+			FileChannel channel = randomAccessFile.getChannel();
+			
+			int version = randomAccessFile.readInt();
+			if(version == STORE_VERSION) {
+				
+				recordSize = RECORD_SIZE;
+				
+			} else if(version == 1) {
+				
+				recordSize = VERSION_1_RECORD_SIZE;
+				
+			} else {
+				
+				throw new StreamCorruptedException("Unknown event store version");
+				
+			}
+			
+			size = randomAccessFile.readInt();
+			long heapOffset = randomAccessFile.readLong();
+			long heapLength = randomAccessFile.readLong();
+			
+			if(size < 0 || heapOffset != HEADER_SIZE + (long) size * recordSize || heapOffset + heapLength > channel.size()) {
+				
+				throw new StreamCorruptedException("Event store is truncated");
+				
+			}
+			
+			records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, (long) size * recordSize);
+			heap = channel.map(FileChannel.MapMode.READ_ONLY, heapOffset, heapLength);
+			
+		} finally {
+			
+			//The mappings stay valid after the file is closed
+			randomAccessFile.close();
+			
+		}
+		
+	}
+	
+	/**
+	 * @return The file of this store
+	 */
+	public File getFile() {
+		
+		return file;
+		
+	}
+	
+	/**
+	 * @return The number of events in this store
+	 */
+	public int size() {
+		
+		return size;
+		
+	}
+	
+	public int getBeginEpochDay(int index) {
+		
+		return records.getInt(index * recordSize + BEGIN_DAY);
+		
+	}
+	
+	public int getEndEpochDay(int index) {
+		
+		return records.getInt(index * recordSize + END_DAY);
+		
+	}
+	
+	/**
+	 * @param index The index of the event
+	 * @return The epoch day of the event's finished date, or <code>NOT_FINISHED</code>
+	 */
+	public int getFinishedEpochDay(int index) {
+		
+		return records.getInt(index * recordSize + FINISHED_DAY);
+		
+	}
+	
+	/**
+	 * @param index The index of the event
+	 * @return The event's ID. For version 1 stores, this is 0 until <code>assignEventIds</code> is called.
+	 */
+	public long getEventId(int index) {
+		
+		if(recordSize == VERSION_1_RECORD_SIZE) {
+			
+			return firstEventId == 0 ? 0 : firstEventId + index;
+			
+		}
+		
+		return records.getLong(index * recordSize + EVENT_ID);
+		
+	}
+	
+	/**
+	 * @return False if this is a version 1 store, whose records have no event IDs
+	 */
+	public boolean hasEventIds() {
+		
+		return recordSize != VERSION_1_RECORD_SIZE;
+		
+	}
+	
+	/**
+	 * Gives the events of a version 1 store the IDs from <code>firstEventId</code> to <code>firstEventId + size() - 1</code>, in the order of their records. This doesn't change the file.
+	 * @param firstEventId The ID of the first record's event
+	 */
+	public synchronized void assignEventIds(long firstEventId) {
+		
+		this.firstEventId = firstEventId;
+		idTable = null;
+		idTableRecords = null;
+		
+	}
+	
+	/**
+	 * Finds the record of an event by its ID, without reading any events<br>
+	 * The first call builds a hash table of every ID in the store, so that every call after it takes constant time.
+	 * @param id The ID of the event
+	 * @return The index of the event's record, or -1 if no record has the ID
+	 */
+	public synchronized int findRecord(long id) {
+		
+		if(!hasEventIds()) {
+			
+			return firstEventId != 0 && id >= firstEventId && id - firstEventId < size ? (int) (id - firstEventId) : -1;
+			
+		}
+		
+		if(idTable == null) {
+			
+			buildIdTable();
+			
+		}
+		
+		//IDs are never 0, so 0 marks an empty slot
+		int mask = idTable.length - 1;
+		for(int slot = hashId(id) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+			
+			if(idTable[slot] == id) {
+				
+				return idTableRecords[slot];
+				
+			}
+			
+		}
+		
+		return -1;
+		
+	}
+	
+	/**
+	 * @return The greatest ID of any event in the store, or 0 if the store is empty or its events have no IDs yet
+	 */
+	public long getMaxEventId() {
+		
+		long maxId = 0;
+		for(int i = 0; i < size; i++) {
+			
+			maxId = Math.max(maxId, getEventId(i));
+			
+		}
+		
+		return maxId;
+		
+	}
+	
+	//Puts every ID into a hash table that is at most half full, so that looking for an ID almost never has to check more than a couple of slots
+	private void buildIdTable() {
+		
+		int capacity = Integer.highestOneBit(Math.max(size, 1)) * 4;
+		idTable = new long[capacity];
+		idTableRecords = new int[capacity];
+		
+		for(int i = 0; i < size; i++) {
+			
+			long id = getEventId(i);
+			int slot = hashId(id) & (capacity - 1);
+			while(idTable[slot] != 0) {
+				
+				slot = (slot + 1) & (capacity - 1);
+				
+			}
+			
+			idTable[slot] = id;
+			idTableRecords[slot] = i;
+			
+		}
+		
+	}
+	
+	//Mixes the bits of an ID, since IDs are mostly consecutive
+	private static int hashId(long id) {
+		
+		long hash = id * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+		
+	}
+	
+	public String getEventTitle(int index) {
+		
+		return new String(getEventTitleBytes(index), StandardCharsets.UTF_8);
+		
+	}
+	
+	/**
+	 * Reads an event from the store
+	 * @param index The index of the event
+	 * @return A new Event object with the data of the event
+	 */
+	public Event readEvent(int index) {
+		
+		Event event = new Event(Date.ofEpochDay(getBeginEpochDay(index)), Date.ofEpochDay(getEndEpochDay(index)), getEventTitle(index));
+		
+		if(getFinishedEpochDay(index) != NOT_FINISHED) {
+			
+			event.setFinishedDate(Date.ofEpochDay(getFinishedEpochDay(index)));
+			
+		}
+		event.setId(getEventId(index));
+		
+		return event;
+		
+	}
+	
+	/**
+	 * Checks if an event would be shown on a date without reading the event. See <code>Event.isShownOn</code>.
+	 * @param index The index of the event
+	 * @param epochDay The epoch day of the date
+	 * @return True if the event is shown on the date
+	 */
+	public boolean isShownOn(int index, int epochDay) {
+		
+		return epochDay >= getBeginEpochDay(index) && epochDay <= getLatestShowingEpochDay(index);
+		
+	}
+	
+	/**
+	 * Gets the epoch day of an event's latest showing date without reading the event. See <code>Event.getLatestShowingDate</code>.
+	 * @param index The index of the event
+	 * @return The epoch day
+	 */
+	public int getLatestShowingEpochDay(int index) {
+		
+		int latestShowingDay = getEndEpochDay(index);
+		int finishedDay = getFinishedEpochDay(index);
+		if(finishedDay != NOT_FINISHED && finishedDay <= latestShowingDay) {
+			
+			latestShowingDay = finishedDay;
+			
+		}
+		
+		return latestShowingDay;
+		
+	}
+	
+	//Copies the UTF-8 bytes of an event's title out of the string heap
+	private byte[] getEventTitleBytes(int index) {
+		
+		byte[] bytes = new byte[records.getInt(index * recordSize + TITLE_LENGTH)];
+		
+		//A duplicate has its own position, so that titles can be read by multiple threads at once
+		ByteBuffer heapView = heap.duplicate();
+		heapView.position(records.getInt(index * recordSize + TITLE_OFFSET));
+		heapView.get(bytes);
+		
+		return bytes;
+		
+	}
+	
+	/**
+	 * Encodes a list of events as the contents of a new store<br>
+	 * Events of a <code>MappedEventList</code> that were never read are copied straight from their store, without being read.
+	 * @param events The events
+	 * @return The contents of the store, which should be written to a file that isn't the file of a store that is currently open
+	 * @throws IOException If the events don't fit in one store
+	 */
+	public static byte[] encode(List<Event> events) throws IOException {
+		
+		MappedEventList mappedEvents = events instanceof MappedEventList ? (MappedEventList) events : null;
+		
+		//Encode the titles first, so that the size of the string heap is known
+		byte[][] titles = new byte[events.size()][];
+		long heapLength = 0;
+		for(int i = 0; i < events.size(); i++) {
+			
+			if(mappedEvents != null && mappedEvents.getUnreadRecordIndex(i) != -1) {
+				
+				titles[i] = mappedEvents.getStore().getEventTitleBytes(mappedEvents.getUnreadRecordIndex(i));
+				
+			} else {
+				
+				titles[i] = events.get(i).getEventTitle().getBytes(StandardCharsets.UTF_8);
+				
+			}
+			
+			heapLength += titles[i].length;
+			
+		}
+		
+		long heapOffset = HEADER_SIZE + (long) events.size() * RECORD_SIZE;
+		if(heapOffset + heapLength > Integer.MAX_VALUE) {
+			
+			throw new IOException("Too many events for one event store");
+			
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocate((int) (heapOffset + heapLength));
+		buffer.putInt(STORE_VERSION);
+		buffer.putInt(events.size());
+		buffer.putLong(heapOffset);
+		buffer.putLong(heapLength);
+		
+		int titleOffset = 0;
+		for(int i = 0; i < events.size(); i++) {
+			
+			if(mappedEvents != null && mappedEvents.getUnreadRecordIndex(i) != -1) {
+				
+				//Copy the dates and the ID of the record as they are
+				MappedEventStore store = mappedEvents.getStore();
+				int recordIndex = mappedEvents.getUnreadRecordIndex(i);
+				buffer.putInt(store.getBeginEpochDay(recordIndex));
+				buffer.putInt(store.getEndEpochDay(recordIndex));
+				buffer.putInt(store.getFinishedEpochDay(recordIndex));
+				buffer.putInt(titleOffset);
+				buffer.putInt(titles[i].length);
+				buffer.putLong(store.getEventId(recordIndex));
+				
+			} else {
+				
+				Event event = events.get(i);
+				buffer.putInt(event.getBeginDate().toEpochDay());
+				buffer.putInt(event.getEndDate().toEpochDay());
+				buffer.putInt(event.getFinishedDate() == null ? NOT_FINISHED : event.getFinishedDate().toEpochDay());
+				buffer.putInt(titleOffset);
+				buffer.putInt(titles[i].length);
+				buffer.putLong(event.getId());
+				
+			}
+			
+			titleOffset += titles[i].length;
+			
+		}
+		
+		for(int i = 0; i < titles.length; i++) {
+			
+			buffer.put(titles[i]);
+			
+		}
+		
+		return buffer.array();
+		
+	}
+	
+}
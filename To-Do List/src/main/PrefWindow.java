@@ -15,6 +15,7 @@ import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JColorChooser;
 import javax.swing.JComboBox;
 import javax.swing.JFrame;
@@ -26,9 +27,9 @@ import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.colorchooser.AbstractColorChooserPanel;
 
-import com.formdev.flatlaf.FlatDarkLaf;
 import com.formdev.flatlaf.FlatLightLaf;
 
+import support.Date;
 import support.Date.DateFormat;
 
 /**
@@ -47,11 +48,11 @@ public class PrefWindow extends JFrame {
 	private static final int BOTTOM_BUTTONS_SEPARATION = 3;
 	
 	/**The window icon*/
-	private final ImageIcon prefWindowIcon = new ImageIcon(getClass().getResource("/todopreferencesicon.png"));
+	private final ImageIcon prefWindowIcon = IconCache.getIcon("/todopreferencesicon.png");
 	/**Title font*/
 	private final Font titleFont = new Font("Segoe UI Semibold", Font.PLAIN, 24);
 	/**The icon for the small color picker button in the preferences dialog window*/
-	private final ImageIcon colorPickerIcon = new ImageIcon(getClass().getResource("/colorpicker.png"));
+	private final ImageIcon colorPickerIcon = IconCache.getIcon("/colorpicker.png");
 	
 	/**A reference to the main window's pane*/
 	private MainPane mainPane;
@@ -60,6 +61,8 @@ public class PrefWindow extends JFrame {
 	private JComboBox<DateFormat> dateFormatComboBox;
 	/**The text field with the amount of time the user needs to hold down the mouse to mark an event as done*/
 	private JTextField longPressField;
+	/**The check box for whether the events in the data file are compressed*/
+	private JCheckBox compressEventsCheckBox;
 	private JTextField lightFinishedColorField;
 	private JTextField darkFinishedColorField;
 	private JTextField lightOverdueColorField;
@@ -68,7 +71,8 @@ public class PrefWindow extends JFrame {
 	private JButton appearanceModeButton;
 	private JButton okayButton;
 	
-	private ColorPickerWindow colorPickerWindow = new ColorPickerWindow(ColorSetting.FINISHED_L);
+	/**The color picker window that was opened last; null until one is opened*/
+	private ColorPickerWindow colorPickerWindow;
 	
 	public enum ColorSetting{FINISHED_L, OVERDUE_L, FINISHED_D, OVERDUE_D}
 	
@@ -80,7 +84,7 @@ public class PrefWindow extends JFrame {
 		
 		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 		setTitle("Preferences");
-		setSize(325, 325);
+		setSize(325, 350);
 		setIconImage(prefWindowIcon.getImage());
 		setLayout(new BoxLayout(this.getContentPane(), BoxLayout.X_AXIS));
 		
@@ -123,6 +127,12 @@ public class PrefWindow extends JFrame {
 		mainPanel.add(Box.createRigidArea(new Dimension(0, DEFAULT_COMPONENT_SEPARATION)));
 		mainPanel.add(markEventAsDoneLongPressPanel);
 		
+		//For the compressesEvents setting in FileIO
+		compressEventsCheckBox = new JCheckBox("<html>Compress Saved Events (smaller, but slower to save)</html>", FileIO.getCompressesEvents());
+		compressEventsCheckBox.setAlignmentX(LEFT_ALIGNMENT);
+		mainPanel.add(Box.createRigidArea(new Dimension(0, DEFAULT_COMPONENT_SEPARATION)));
+		mainPanel.add(compressEventsCheckBox);
+		
 		//For the lightFinishedEventColorRGB setting in FileIO
 		lightFinishedColorField = new JTextField();
 		JPanel lightFinishedColorPanel = createColorFieldJPanel("<html>Light Mode Finished Event Color</html>", lightFinishedColorField, FileIO.getLightFinishedEventColorRGB());
@@ -188,6 +198,8 @@ public class PrefWindow extends JFrame {
 		
 		//Add listeners to the components
 		addListeners();
+		
+		ToDoWindow.windowCreated(this);
 					
 	}
 	
@@ -225,11 +237,19 @@ public class PrefWindow extends JFrame {
 			
 			}
 			
+			//The Strings of the old date format won't be shown anymore
+			Date.clearFormatCache();
 			//Reloading all of the date fields
 			mainPane.updateColorsAndDateFormats();
 			
 		});
 		
+		compressEventsCheckBox.addActionListener((e) -> {
+			
+			FileIO.setCompressesEvents(compressEventsCheckBox.isSelected());
+			
+		});
+		
 		//Switches the focus to the okay button, which triggers the focusLost method below
 		longPressField.addKeyListener(new KeyAdapter() {
 		
@@ -347,6 +367,7 @@ public class PrefWindow extends JFrame {
 		resetButton.addActionListener((e) -> {
 			
 			FileIO.setDefaultSettings();
+			compressEventsCheckBox.setSelected(FileIO.getCompressesEvents());
 			lightFinishedColorField.setText(FileIO.getLightFinishedEventColorRGB()[0] + " " + FileIO.getLightFinishedEventColorRGB()[1] + " " + FileIO.getLightFinishedEventColorRGB()[2]);
 			darkFinishedColorField.setText(FileIO.getDarkFinishedEventColorRGB()[0] + " " + FileIO.getDarkFinishedEventColorRGB()[1] + " " + FileIO.getDarkFinishedEventColorRGB()[2]);
 			lightOverdueColorField.setText(FileIO.getLightOverdueEventColorRGB()[0] + " " + FileIO.getLightOverdueEventColorRGB()[1] + " " + FileIO.getLightOverdueEventColorRGB()[2]);
@@ -581,8 +602,8 @@ public class PrefWindow extends JFrame {
 			
 			//Switching to dark mode
 			
-			//Set the new look and feel to FlatDarkLaf (dark mode)
-			lookAndFeel = new FlatDarkLaf();
+			//Set the new look and feel to FlatDarkLaf (dark mode), which is only created the first time
+			lookAndFeel = ToDoWindow.getLookAndFeel(true);
 			//Update the icon so that it looks like it allows the user to switch back to light mode
 			appearanceModeButton.setText("Turn on Light Mode");
 			
@@ -590,8 +611,8 @@ public class PrefWindow extends JFrame {
 			
 			//Switching to light mode
 			
-			//Set the new look and feel to FlatLightLaf (light mode)
-			lookAndFeel = new FlatLightLaf();
+			//Set the new look and feel to FlatLightLaf (light mode), which is only created the first time
+			lookAndFeel = ToDoWindow.getLookAndFeel(false);
 			//Update the icon so that it looks like it allows the user to switch back to dark mode
 			appearanceModeButton.setText("Turn on Dark Mode");
 			
@@ -647,7 +668,7 @@ public class PrefWindow extends JFrame {
 		private static final long serialVersionUID = 614894598885931815L;
 
 		/**The window icon*/
-		private final ImageIcon colorChooserWindowIcon = new ImageIcon(getClass().getResource("/todocolorchoosericon.png"));
+		private final ImageIcon colorChooserWindowIcon = IconCache.getIcon("/todocolorchoosericon.png");
 		
 		private ColorSetting colorSetting;
 		
@@ -718,6 +739,8 @@ public class PrefWindow extends JFrame {
 			
 			addListeners();
 			
+			ToDoWindow.windowCreated(this);
+			
 		}
 		
 		private void addListeners() {
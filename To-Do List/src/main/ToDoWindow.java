@@ -3,8 +3,11 @@ package main;
 import java.awt.Dimension;
 import java.awt.GraphicsEnvironment;
 import java.awt.Point;
+import java.awt.Window;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.WeakHashMap;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -13,6 +16,7 @@ import javax.swing.JFrame;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.LookAndFeel;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
@@ -43,9 +47,17 @@ public class ToDoWindow extends JFrame {
 	private JMenuItem prefMenuItem;
 		
 	/**The window icon*/
-	private final ImageIcon windowIcon = new ImageIcon(getClass().getResource("/todoicon.png"));
+	private final ImageIcon windowIcon = IconCache.getIcon("/todoicon.png");
 	/**The center of the screen*/
 	private final Point centerPoint;
+	/**The look and feel of light mode; null until it is needed. It is only created once, so switching back to it is quick.*/
+	private static LookAndFeel lightLookAndFeel;
+	/**The look and feel of dark mode; null until it is needed*/
+	private static LookAndFeel darkLookAndFeel;
+	/**The look and feel that each window of the program was created or last reloaded with. Windows that are thrown away are forgotten.*/
+	private static final WeakHashMap<Window, LookAndFeel> windowLookAndFeels = new WeakHashMap<Window, LookAndFeel>();
+	/**True if how long each step of starting up takes is printed, which is turned on by running the program with <code>-Dtodo.startupTiming=true</code>*/
+	private static final boolean printsStartupTiming = Boolean.getBoolean("todo.startupTiming");
 	
 	/**
 	 * Creates the window
@@ -86,6 +98,8 @@ public class ToDoWindow extends JFrame {
 		menuBar.add(settingsMenu);
 		
 		setJMenuBar(menuBar);
+		
+		windowCreated(this);
 				
 		addListeners();
 		
@@ -96,18 +110,10 @@ public class ToDoWindow extends JFrame {
 	 */
 	private void addListeners() {
 		
-		//When the program is about to exit, save FileIO's data to the file
-		//Or repaint the main window when it is activated
+		//Repaint the main window when it is activated
+		//FileIO's data is saved by the shutdown hook once the window is closed, so that saving doesn't hold up the event dispatch thread
 		this.addWindowListener(new WindowAdapter() {
 			
-			@Override
-			public void windowClosing(WindowEvent e) {
-				
-				FileIO.saveToFile();
-				System.out.println("saved to file");
-				
-			}
-			
 			@Override
 			public void windowActivated(WindowEvent e) {
 				
@@ -128,7 +134,7 @@ public class ToDoWindow extends JFrame {
 		//Help window pop up
 		helpMenuItem.addActionListener((e) -> {
 			
-			mainPane.getHelpWindow().setVisible(true);
+			showWindow(mainPane.getHelpWindow());
 			mainPane.getHelpWindow().setLocation(centerPoint);
 			
 		});
@@ -136,7 +142,7 @@ public class ToDoWindow extends JFrame {
 		//About window pop up
 		aboutMenuItem.addActionListener((e) -> {
 			
-			mainPane.getAboutWindow().setVisible(true);
+			showWindow(mainPane.getAboutWindow());
 			mainPane.getAboutWindow().setLocation(centerPoint);
 			
 		});
@@ -144,7 +150,7 @@ public class ToDoWindow extends JFrame {
 		//Preferences window pop up
 		prefMenuItem.addActionListener((e) -> {
 			
-			mainPane.getPrefWindow().setVisible(true);
+			showWindow(mainPane.getPrefWindow());
 			//The OK button should be focused when this window is popped up
 			mainPane.getPrefWindow().requestOKButtonFocus();
 			mainPane.getPrefWindow().setLocation(centerPoint);
@@ -154,44 +160,143 @@ public class ToDoWindow extends JFrame {
 	}
 	
 	/**
-	 * Reload the look and feel of the pop up windows
+	 * Reload the look and feel of the windows that are showing. The windows that aren't showing are reloaded the next time that they are shown.<br>
+	 * Windows that already have the current look and feel aren't reloaded, so this costs nothing unless the look and feel changed.
 	 */
 	public void reloadWindows() {
 		
-		SwingUtilities.updateComponentTreeUI(this);
-		SwingUtilities.updateComponentTreeUI(mainPane.getHelpWindow());
-		SwingUtilities.updateComponentTreeUI(mainPane.getAboutWindow());
-		SwingUtilities.updateComponentTreeUI(mainPane.getPrefWindow());
-		SwingUtilities.updateComponentTreeUI(mainPane.getPrefWindow().getColorPickerWindow());
-		mainPane.getPrefWindow().getColorPickerWindow().forceOneChooserPanel(1);
+		//The windows are copied, since reloading them changes the map
+		for(Window window : new ArrayList<Window>(windowLookAndFeels.keySet())) {
+			
+			if(window.isVisible()) {
+				
+				reloadWindow(window);
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Gets the look and feel of light or dark mode, creating it the first time
+	 * @param usesDarkMode True for dark mode, false for light mode
+	 * @return The same look and feel every time for each mode
+	 */
+	public static LookAndFeel getLookAndFeel(boolean usesDarkMode) {
+		
+		if(usesDarkMode) {
+			
+			if(darkLookAndFeel == null) {
+				
+				darkLookAndFeel = new FlatDarkLaf();
+				
+			}
+			
+			return darkLookAndFeel;
+			
+		} else {
+			
+			if(lightLookAndFeel == null) {
+				
+				lightLookAndFeel = new FlatLightLaf();
+				
+			}
+			
+			return lightLookAndFeel;
+			
+		}
+		
+	}
+	
+	/**
+	 * Remembers that a window was just created with the current look and feel, so that it is reloaded once the look and feel changes, but not before
+	 * @param window The window
+	 */
+	public static void windowCreated(Window window) {
+		
+		windowLookAndFeels.put(window, UIManager.getLookAndFeel());
+		
+	}
+	
+	/**
+	 * Reload the look and feel of a window if it was last reloaded with a different look and feel
+	 * @param window The window
+	 */
+	private void reloadWindow(Window window) {
+		
+		LookAndFeel lookAndFeel = UIManager.getLookAndFeel();
+		if(windowLookAndFeels.get(window) == lookAndFeel) {
+			
+			return;
+			
+		}
+		
+		SwingUtilities.updateComponentTreeUI(window);
+		windowLookAndFeels.put(window, lookAndFeel);
+		
+		if(window instanceof PrefWindow.ColorPickerWindow) {
+			
+			//Updating the color chooser brings back all of its chooser panels
+			((PrefWindow.ColorPickerWindow) window).forceOneChooserPanel(1);
+			
+		}
+		
+	}
+	
+	/**
+	 * Show a pop up window, reloading its look and feel first if it changed while the window was hidden
+	 * @param window The window
+	 */
+	private void showWindow(Window window) {
+		
+		reloadWindow(window);
+		window.setVisible(true);
+		
+	}
+	
+	/**
+	 * Prints how long a step of starting up the program took, if <code>printsStartupTiming</code> is true
+	 * @param step What the step was
+	 * @param stepStartTime When the step started, from <code>System.nanoTime()</code>
+	 * @return The time now, which is when the next step starts
+	 */
+	private static long printStartupStep(String step, long stepStartTime) {
+		
+		long time = System.nanoTime();
+		if(printsStartupTiming) {
+			
+			System.out.println("Startup: " + step + " took " + (time - stepStartTime) / 1000000 + " ms");
+			
+		}
+		return time;
 		
 	}
 	
 	//Start the program
 	public static void main(String[] args) {
 
+		//How long each step of starting up takes is printed with -Dtodo.startupTiming=true
+		long startupTime = System.nanoTime();
+		
 		//Set the custom theme
 		FlatLaf.registerCustomDefaultsSource("support");
 		FlatDarkLaf.setup();
+		long themeTime = printStartupStep("setting up the theme", startupTime);
+		
+		//Read the settings before the program frame is loaded. The events are decoded in the background, and the ones that are shown today are waited for when they are loaded into the table.
+		FileIO.beginReadingFromFile();
+		long readTime = printStartupStep("reading the settings", themeTime);
 		
 		//Load the program frame
 		SwingUtilities.invokeLater(() -> {
 			
-			//Read the file
-			FileIO.readFromFile();
+			long frameStartTime = printStartupStep("waiting for the event dispatch thread", readTime);
 			
 			try {
 				
 				//Set the light or dark mode
-				if(FileIO.getUseDarkMode()) {
-					
-					UIManager.setLookAndFeel(new FlatDarkLaf());
-					
-				} else {
-					
-		            UIManager.setLookAndFeel(new FlatLightLaf());
-					
-				}
+				UIManager.setLookAndFeel(getLookAndFeel(FileIO.getUseDarkMode()));
 				
 				//Putting the menu bar below the window header
 				UIManager.put("TitlePane.menuBarEmbedded", false);
@@ -202,17 +307,22 @@ public class ToDoWindow extends JFrame {
 	        
 			} 
 			
+			long lookAndFeelTime = printStartupStep("setting the look and feel", frameStartTime);
+			
     		ToDoWindow gui = new ToDoWindow();
+    		long createTime = printStartupStep("creating the main window", lookAndFeelTime);
     		gui.setVisible(true);
     		//The input event text box should be focused when the program starts
     		gui.mainPane.requestEventFieldFocus();
+    		printStartupStep("showing the main window", createTime);
+    		printStartupStep("starting up in total", startupTime);
     		
 		});
 		
-		//Make the program save to file when the program is closed unexpectedly
+		//Make the program save to file when it exits, whether the main window was closed or the program was closed unexpectedly
 		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
 			
-			FileIO.saveToFile();
+			FileIO.saveChanges();
 			
 		}));
 		
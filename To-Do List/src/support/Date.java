@@ -1,13 +1,23 @@
 package support;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.security.InvalidParameterException;
-import java.util.Scanner;
+import java.util.Arrays;
 
 /**
  * 
- * A very simple Date class that is merely a container for three integer fields: month, day and year. There are also a few extra methods, as well as enumerated types that represent date formats.<br>
- * <b>Date instances are immutable.</b>
+ * A very simple Date class that is merely a container for a month, day and year. There are also a few extra methods, as well as enumerated types that represent date formats.<br>
+ * <b>Date instances are immutable.</b><br><br>
+ * A Date is stored as a single <code>int</code>: its epoch day (see <code>toEpochDay()</code>), so comparing two Dates is comparing two ints. The month, day and year are worked out from the epoch day when they are needed.<br>
+ * Since Dates are immutable, the same Date object can be shared by any number of events. <code>of</code> and <code>ofEpochDay</code> return a shared instance for dates from 
+ * <code>CACHED_FIRST_YEAR</code> up to (but not including) <code>CACHED_END_YEAR</code>, so that millions of events don't each need their own Date objects. 
+ * The constructor always creates a new object, so Dates should be compared with <code>equals</code> or <code>compareTo</code>, not <code>==</code>.<br>
+ * Dates are still serialized with a month, day and year, so that data files from before FileIO version 2.0, which are Java object streams, can still be read.
  * 
  * @author James
  *
@@ -22,9 +32,45 @@ public class Date implements Comparable<Date>, Serializable {
 	
 	private static final long serialVersionUID = -7612517206700521638L;
 	
-	private final int month;
-	private final int day;
-	private final int year;
+	/**The serialized form of a Date, which is the month, day and year that Dates were made of before they were stored as epoch days*/
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("month", int.class),
+			new ObjectStreamField("day", int.class),
+			new ObjectStreamField("year", int.class)
+	};
+	
+	/**The separators that <code>parse</code> uses if none are given*/
+	private static final char[] DEFAULT_SEPARATORS = {'/', '-'};
+	/**Returned by <code>parseEpochDay</code> when a date can't be parsed, which is outside the range of an int so it can't be an epoch day*/
+	private static final long NOT_PARSED = Long.MIN_VALUE;
+	
+	/**The latest year that a Date can have. The earliest year is <code>-MAX_YEAR</code>. Every date in between has an epoch day that fits in an <code>int</code>.*/
+	public static final int MAX_YEAR = 1000000;
+	
+	/**The number of Strings that <code>toString(DateFormat)</code> caches for each format. Each date has one place in the cache, by its epoch day, so any 1024 days in a row can all be cached at once.*/
+	private static final int FORMAT_CACHE_SIZE = 1024;
+	/**The cached Strings of <code>toString(DateFormat)</code>, by the ordinal of the format and then by the epoch day modulo <code>FORMAT_CACHE_SIZE</code>*/
+	private static final FormattedDate[][] formatCache = new FormattedDate[DateFormat.values().length][FORMAT_CACHE_SIZE];
+	
+	/**The first year whose dates are cached by <code>of</code> and <code>ofEpochDay</code>*/
+	public static final int CACHED_FIRST_YEAR = 1950;
+	/**The year after the last year whose dates are cached by <code>of</code> and <code>ofEpochDay</code>*/
+	public static final int CACHED_END_YEAR = 2150;
+	
+	/**The value of <code>daysSinceYear0</code> for January 1st, 1970, which is the same as the old way of counting days since year 0: 365 days for each year before 1970, plus a day for each leap year from 1 to 1969, plus 1*/
+	private static final int DAYS_SINCE_YEAR_0_AT_EPOCH = 1970 * 365 + 1969 / 4 - 1969 / 100 + 1969 / 400 + 1;
+	
+	/**The number of days from March 1st to the first day of each month, by the month minus 1. January and February are counted as the end of the year before, so leap days never move the other months.*/
+	private static final int[] DAYS_BEFORE_MONTH_FROM_MARCH = {306, 337, 0, 31, 61, 92, 122, 153, 184, 214, 245, 275};
+	
+	private static final int CACHED_FIRST_EPOCH_DAY = toEpochDay(1, 1, CACHED_FIRST_YEAR);
+	/**The shared instances of the cached dates, by their epoch day minus <code>CACHED_FIRST_EPOCH_DAY</code>. Each one is created the first time that it is needed.*/
+	private static final Date[] cachedDates = new Date[toEpochDay(1, 1, CACHED_END_YEAR) - CACHED_FIRST_EPOCH_DAY];
+	
+	/**The number of days between January 1st, 1970 and this Date*/
+	private final int epochDay;
+	/**The epoch day that was read by <code>readObject</code>, which <code>readResolve</code> replaces the deserialized object with, since <code>epochDay</code> is final*/
+	private transient int deserializedEpochDay;
 	
 	/**
 	 * Constructs a date object.
@@ -36,24 +82,50 @@ public class Date implements Comparable<Date>, Serializable {
 	 */
 	public Date(int month, int day, int year) {
 
-		this.month = month;
-		this.day = day;
-		this.year = year;
-		
-		if(!isValidDate(this)) {
+		if(!isValidDate(month, day, year)) {
 			
 			throw new InvalidParameterException();
 			
 		}
+		
+		this.epochDay = toEpochDay(month, day, year);
 
 	}
+	
+	//Constructs a date object from its epoch day, which is always valid
+	private Date(int epochDay) {
+		
+		this.epochDay = epochDay;
+		
+	}
+	
+	/**
+	 * Gets a date object, like the constructor, but returns a shared instance if the date is cached
+	 * 
+	 * @param month Month, 1 representing January and 12 representing December
+	 * @param day Day
+	 * @param year Year
+	 * @return The date
+	 * @throws InvalidParameterException If the parameters make an invalid date.
+	 */
+	public static Date of(int month, int day, int year) {
+		
+		if(!isValidDate(month, day, year)) {
+			
+			throw new InvalidParameterException();
+			
+		}
+		
+		return ofEpochDay(toEpochDay(month, day, year));
+		
+	}
 
 	/**
 	 * @return The month of this Date object. 1 represents January, and 12 represents December.
 	 */
 	public int getMonth() {
 
-		return month;
+		return (civilDate() >> 5) & 0xF;
 
 	}
 
@@ -62,7 +134,7 @@ public class Date implements Comparable<Date>, Serializable {
 	 */
 	public int getDay() {
 
-		return day;
+		return civilDate() & 0x1F;
 
 	}
 
@@ -71,33 +143,100 @@ public class Date implements Comparable<Date>, Serializable {
 	 */
 	public int getYear() {
 
-		return year;
+		return civilDate() >> 9;
 
 	}
 	
 	@Override
 	public String toString() {
 		
-		return "Day " + day + "; Month " + month + "; Year " + year;
+		return "Day " + getDay() + "; Month " + getMonth() + "; Year " + getYear();
 		
 	}
 	
 	/**
-	 * When trying to get a user-friendly representation of this Date object, this method should be used instead of the regular <code>toString()</code> method.
+	 * When trying to get a user-friendly representation of this Date object, this method should be used instead of the regular <code>toString()</code> method.<br>
+	 * The same few dates are shown over and over, so the Strings are cached for each date and format, and the same String is returned every time.
 	 * 
 	 * @param dateFormat The date formatting style to be used
 	 * @return A String representation of this object with format specified by <code>dateFormat</code>. Forward slashes "/" are used as separators.
 	 */
 	public String toString(DateFormat dateFormat) {
 		
+		FormattedDate[] cache = formatCache[dateFormat.ordinal()];
+		int cacheIndex = epochDay & (FORMAT_CACHE_SIZE - 1);
+		
+		//Another thread may replace the entry at the same time, but each entry is immutable, so either one is fine
+		FormattedDate formattedDate = cache[cacheIndex];
+		if(formattedDate == null || formattedDate.epochDay != epochDay) {
+			
+			formattedDate = new FormattedDate(epochDay, format(dateFormat));
+			cache[cacheIndex] = formattedDate;
+			
+		}
+		
+		return formattedDate.string;
+		
+	}
+	
+	/**
+	 * Appends the same String as <code>toString(DateFormat)</code> to a StringBuilder, without creating a new String<br>
+	 * The cached String is appended if there is one. Otherwise the numbers are written straight into the builder, and nothing is cached, 
+	 * so that going through many dates once (like when exporting every event) doesn't push the dates that are shown out of the cache.
+	 * @param builder The StringBuilder
+	 * @param dateFormat The date formatting style to be used
+	 * @return <code>builder</code>
+	 */
+	public StringBuilder appendTo(StringBuilder builder, DateFormat dateFormat) {
+		
+		FormattedDate formattedDate = formatCache[dateFormat.ordinal()][epochDay & (FORMAT_CACHE_SIZE - 1)];
+		if(formattedDate != null && formattedDate.epochDay == epochDay) {
+			
+			return builder.append(formattedDate.string);
+			
+		}
+		
+		return format(builder, dateFormat);
+		
+	}
+	
+	/**
+	 * Forgets every String that <code>toString(DateFormat)</code> has cached. This should be called when the date format that is shown changes, 
+	 * so that the Strings of the old format don't stay in memory.
+	 */
+	public static void clearFormatCache() {
+		
+		for(FormattedDate[] cache : formatCache) {
+			
+			Arrays.fill(cache, null);
+			
+		}
+		
+	}
+	
+	//Creates the String of toString(DateFormat)
+	private String format(DateFormat dateFormat) {
+		
+		return format(new StringBuilder(11), dateFormat).toString();
+		
+	}
+	
+	//Appends the String of toString(DateFormat) to builder, and returns builder
+	private StringBuilder format(StringBuilder builder, DateFormat dateFormat) {
+		
+		int civilDate = civilDate();
+		int month = (civilDate >> 5) & 0xF;
+		int day = civilDate & 0x1F;
+		int year = civilDate >> 9;
+		
 		switch(dateFormat) {
 		
 		case DMY:
-			return day + "/" + month + "/" + year;
+			return builder.append(day).append('/').append(month).append('/').append(year);
 		case MDY:
-			return month + "/" + day + "/" + year;
+			return builder.append(month).append('/').append(day).append('/').append(year);
 		case YMD:
-			return year + "/" + month + "/" + day;
+			return builder.append(year).append('/').append(month).append('/').append(day);
 		default:
 			throw new UnsupportedOperationException();
 		
@@ -108,9 +247,9 @@ public class Date implements Comparable<Date>, Serializable {
 	@Override
 	public boolean equals(Object obj) {
 		
-		if(obj != null && obj.getClass().equals(this.getClass()) && ((Date) obj).month == this.month && ((Date) obj).day == this.day && ((Date) obj).year == this.year) {
+		if(obj != null && obj.getClass().equals(this.getClass()) && ((Date) obj).epochDay == this.epochDay) {
 			
-			//The other object is not null, the other object is an Event, and the other object's month, day, and year are the same
+			//The other object is not null, the other object is a Date, and the other object is the same day (so it has the same month, day, and year)
 			//Note that the order of the boolean expressions in this if statement matters, for example:
 			//if the object is null, it would fail the first boolean expression and stop computing the rest of the boolean expressions
 			//because the expressions are connected with &&.
@@ -125,10 +264,17 @@ public class Date implements Comparable<Date>, Serializable {
 		
 	}
 	
+	@Override
+	public int hashCode() {
+		
+		return epochDay;
+		
+	}
+	
 	@Override
 	public Object clone() {
 		
-		return new Date(month, day, year);
+		return new Date(epochDay);
 		
 	}
 	
@@ -136,149 +282,264 @@ public class Date implements Comparable<Date>, Serializable {
 	public int compareTo(Date o) {
 		
 		//Note: this method returns 1 if this Date is after the other Date, 0 if this Date is the same as the other Date, and -1 if this Date is before.
+		//Later dates have greater epoch days.
+		return Integer.compare(this.epochDay, o.epochDay);
 		
-		if(this.year > o.year) {
-			
-			//If the year of this Date is larger than the other Date's year, then this Date is definitely after.
-			return 1;
-			
-		} else if(this.year == o.year) {
-			
-			//The dates share a year.
-			
-			if(this.month > o.month) {
-				
-				//If the month of this Date is larger, then this Date is definitely after.
-				return 1;
-				
-			} else if(this.month == o.month) {
-				
-				//The dates share a month.
-				
-				if(this.day > o.day) {
-					
-					//If the day of this Date is larger, then this Date is after.
-					return 1;
-					
-				} else if(this.day == o.day) {
-					
-					//This Date shares the same day, month, and year with the other Date. They are the same.
-					return 0;
-					
-				}
-				
-			}
-			
-		}
+	}
+	
+	/**
+	 * Reads a String and tries to create a Date object given the intended date format, with forward slashes "/" and hyphens "-" as separators.<br>
+	 * See <code>parse(CharSequence, DateFormat, char...)</code>.
+	 * 
+	 * @param str A string of month, day, year form separated by spaces, forward slashes or hyphens
+	 * @param format The intended date format of <code>str</code>
+	 * @return A Date object parsed from <code>str</code>, null if a date cannot be parsed or if the parsed date was invalid
+	 */
+	public static Date parse(CharSequence str, DateFormat format) {
 		
-		//The other Date did not qualify as being after this Date, nor did it qualify for being the same.
-		return -1;
+		return parse(str, format, DEFAULT_SEPARATORS);
 		
 	}
 	
 	/**
 	 * Reads a String and tries to create a Date object given the intended date format and separators.<br>
-	 * The String must express the month, day, and year as integers. Months are from 1-12.
+	 * The String must express the month, day, and year as integers. Months are from 1-12.<br>
+	 * The characters are read one at a time, without creating any objects, so bad input is just returned as null instead of throwing an exception.
 	 * 
 	 * @param str A string of month, day, year form separated by spaces and any other specified separator
 	 * @param format The intended date format of <code>str</code>
 	 * @param separators A list of characters that are intended to separate the month, day and years
 	 * @return A Date object parsed from <code>str</code>, null if a date cannot be parsed or if the parsed date was invalid
 	 */
-	public static Date parse(String str, DateFormat format, char...separators) {
+	public static Date parse(CharSequence str, DateFormat format, char...separators) {
 		
 		//If there was not a list of separators provided, use the forwards slash and hyphen
 		if(separators.length == 0) {
 			
-			separators = new char[] {'/', '-'};
+			separators = DEFAULT_SEPARATORS;
 			
 		}
 		
-		//Replacing the separators with a space (for consistency)
-		String dateStr = str;
-		for(int i = 0; i < separators.length; i++) {
+		long epochDay = parseEpochDay(str, 0, str.length(), format, separators);
+		
+		return epochDay == NOT_PARSED ? null : ofEpochDay((int) epochDay);
+		
+	}
+	
+	/**
+	 * Parses a whole block of text with one date on each line, such as a file that is being imported.<br>
+	 * Lines are separated by '\n', and a '\r' before it is ignored like any other space. A newline at the very end doesn't start another line.
+	 * 
+	 * @param text The lines of dates
+	 * @param format The intended date format of every line
+	 * @param separators A list of characters that are intended to separate the month, day and years. Forward slashes and hyphens are used if there aren't any.
+	 * @return The Date parsed from each line, in order. Lines that can't be parsed, or whose dates are invalid, are null.
+	 */
+	public static Date[] parseLines(CharSequence text, DateFormat format, char...separators) {
+		
+		if(separators.length == 0) {
 			
-			dateStr = dateStr.replace(separators[i], ' ');
+			separators = DEFAULT_SEPARATORS;
 			
 		}
 		
-		//Scanner for dateStr
-		Scanner scanner = new Scanner(dateStr);
+		int length = text.length();
 		
-		try {
+		//Count the lines first, so that the array only has to be created once
+		int lineCount = 0;
+		for(int i = 0; i < length; i++) {
 			
-			int month;
-			int day;
-			int year;
-			Date newDate = null;
+			if(text.charAt(i) == '\n') {
+				
+				lineCount++;
+				
+			}
 			
-			//The way str will be read depends on the provided date format.
-			switch(format) {
+		}
+		if(length > 0 && text.charAt(length - 1) != '\n') {
 			
-			//If there are any weird characters in str (ex.: a letter), scanner.nextInt() will throw an exception that will be caught
+			lineCount++;
 			
-			case DMY:
-				day = scanner.nextInt();
-				month = scanner.nextInt();
-				year = scanner.nextInt();
-				newDate = new Date(month, day, year);
-				break;
-				
-			case MDY:
-				month = scanner.nextInt();
-				day = scanner.nextInt();
-				year = scanner.nextInt();
-				newDate = new Date(month, day, year);
-				break;
+		}
+		
+		Date[] dates = new Date[lineCount];
+		int lineStart = 0;
+		for(int line = 0; line < lineCount; line++) {
+			
+			int lineEnd = lineStart;
+			while(lineEnd < length && text.charAt(lineEnd) != '\n') {
 				
-			case YMD:
-				year = scanner.nextInt();
-				month = scanner.nextInt();
-				day = scanner.nextInt();
-				break;
+				lineEnd++;
 				
-			default: //The provided Date Format was not DMY, MDY, or YMD (this can happen if I added a new date format and forgot to implement this for it).
-				scanner.close();
-				throw new UnsupportedOperationException();
+			}
 			
+			long epochDay = parseEpochDay(text, lineStart, lineEnd, format, separators);
+			dates[line] = epochDay == NOT_PARSED ? null : ofEpochDay((int) epochDay);
+			
+			lineStart = lineEnd + 1;
+			
+		}
+		
+		return dates;
+		
+	}
+	
+	//Parses the date from index start up to index end of str, and returns its epoch day, or NOT_PARSED if it can't be parsed or is invalid
+	//Like the Scanner that this replaced, the numbers are separated by any amount of whitespace and separators, and may have a sign if it isn't a separator
+	private static long parseEpochDay(CharSequence str, int start, int end, DateFormat format, char[] separators) {
+		
+		int first = 0;
+		int second = 0;
+		int third = 0;
+		int numberCount = 0;
+		
+		int i = start;
+		while(true) {
+			
+			//Skip the whitespace and separators before the next number
+			while(i < end && isDelimiter(str.charAt(i), separators)) {
+				
+				i++;
+				
 			}
 			
-			//If the code reaches here, then there are no weird characters in str.
+			if(i == end) {
+				
+				break;
+				
+			}
 			
-			if(scanner.hasNext()) {
+			if(numberCount == 3) {
 				
-				//There is extra text in str. Such an error wouldn't be caught by the nextInt() methods.
-				scanner.close();
-				return null;
+				//There is extra text after the year
+				return NOT_PARSED;
 				
-			} else {
+			}
+			
+			boolean isNegative = false;
+			char c = str.charAt(i);
+			if(c == '-' || c == '+') {
 				
-				//There is no extra text, and there are no weird characters.
+				isNegative = c == '-';
+				i++;
 				
-				scanner.close();
+			}
+			
+			int digitsStart = i;
+			long number = 0;
+			while(i < end && (c = str.charAt(i)) >= '0' && c <= '9') {
 				
-				//Finally, if the parsed date is valid, return it. If it isn't valid, return null.
-				if(isValidDate(newDate)) {
-					
-					return newDate;
-					
-				} else {
+				number = number * 10 + (c - '0');
+				
+				if(number > Integer.MAX_VALUE + 1L) {
 					
-					return null;
+					//The number doesn't fit in an int
+					return NOT_PARSED;
 					
 				}
 				
+				i++;
+				
+			}
+			
+			//There has to be at least one digit, and the number has to end at a delimiter or at the end (so "12a" isn't read as 12)
+			if(i == digitsStart || (i < end && !isDelimiter(str.charAt(i), separators))) {
+				
+				return NOT_PARSED;
+				
+			}
+			
+			if(isNegative) {
+				
+				number = -number;
+				
+			}
+			
+			if(number > Integer.MAX_VALUE) {
+				
+				return NOT_PARSED;
+				
 			}
 			
-		} catch (Exception e) {
+			if(numberCount == 0) {
+				
+				first = (int) number;
+				
+			} else if(numberCount == 1) {
+				
+				second = (int) number;
+				
+			} else {
+				
+				third = (int) number;
+				
+			}
+			numberCount++;
 			
-			//There was some kind of error when the scanner was doing nextInt().
-			//(str might've had extra characters)
-			scanner.close();
-			return null;
+		}
+		
+		if(numberCount != 3) {
+			
+			return NOT_PARSED;
 			
 		}
 		
+		int month;
+		int day;
+		int year;
+		
+		//The way the numbers are read depends on the provided date format.
+		switch(format) {
+		
+		case DMY:
+			day = first;
+			month = second;
+			year = third;
+			break;
+			
+		case MDY:
+			month = first;
+			day = second;
+			year = third;
+			break;
+			
+		case YMD:
+			year = first;
+			month = second;
+			day = third;
+			break;
+			
+		default: //The provided Date Format was not DMY, MDY, or YMD (this can happen if I added a new date format and forgot to implement this for it).
+			throw new UnsupportedOperationException();
+		
+		}
+		
+		//Finally, if the parsed date is valid, return it.
+		if(!isValidDate(month, day, year)) {
+			
+			return NOT_PARSED;
+			
+		}
+		
+		return toEpochDay(month, day, year);
+		
+	}
+	
+	//Whitespace always separates numbers, the same as it did for the Scanner
+	private static boolean isDelimiter(char c, char[] separators) {
+		
+		for(int i = 0; i < separators.length; i++) {
+			
+			if(c == separators[i]) {
+				
+				return true;
+				
+			}
+			
+		}
+		
+		return Character.isWhitespace(c);
+		
 	}
 	
 	/**
@@ -288,17 +549,38 @@ public class Date implements Comparable<Date>, Serializable {
 	 */
 	public static boolean isValidDate(Date date) {
 		
+		//Every Date object is checked when it is constructed
+		return isValidDate(date.getMonth(), date.getDay(), date.getYear());
+		
+	}
+	
+	/**
+	 * Checks if a month, day and year make a valid date (exists on the calendar)
+	 * @param month The month, 1 representing January and 12 representing December
+	 * @param day The day
+	 * @param year The year
+	 * @return True if the date is valid
+	 */
+	public static boolean isValidDate(int month, int day, int year) {
+		
 		//If the month isn't between 1 and 12, then the date is invalid (I will still allow negative years though because funny and it still somewhat makes sense)
-		if(date.month > 12 || date.month < 1) {
+		if(month > 12 || month < 1) {
+			
+			return false;
+			
+		}
+		
+		//Years that are too far away from 1970 don't fit in an epoch day
+		if(year > MAX_YEAR || year < -MAX_YEAR) {
 			
 			return false;
 			
 		}
 		
-		if(date.month == 1 || date.month == 3 || date.month == 5 || date.month == 7 || date.month == 8 || date.month == 10 || date.month == 12) {
+		if(month == 1 || month == 3 || month == 5 || month == 7 || month == 8 || month == 10 || month == 12) {
 			
 			//The month is one of the months that have 31 days. Check if the day is in between 1 and 31.
-			if(date.day >=1 && date.day <= 31) {
+			if(day >=1 && day <= 31) {
 				
 				return true;
 				
@@ -307,10 +589,10 @@ public class Date implements Comparable<Date>, Serializable {
 		} else {
 			
 			//The month is one of the months that have less than 31 days. All of these months except for February have 30 days.
-			if(date.month != 2) {
+			if(month != 2) {
 				
 				//The month is not February, so if the day is in between 1 and 30 it is valid.
-				if(date.day >= 1 && date.day <= 30) {
+				if(day >= 1 && day <= 30) {
 					
 					return true;
 					
@@ -319,16 +601,16 @@ public class Date implements Comparable<Date>, Serializable {
 			} else {
 				
 				//The month is February, so check if it is a leap year or not (leap year Februaries have an extra 29th day)
-				if(isLeapYear(date.year)) {
+				if(isLeapYear(year)) {
 					
 					//It is a leap year, so if the day is in between 1 and 29 it is valid.
-					if(date.day >= 1 && date.day <= 29) {
+					if(day >= 1 && day <= 29) {
 						
 						return true;
 						
 					}
 					
-				} else if(date.day >= 1 && date.day <= 28) {
+				} else if(day >= 1 && day <= 28) {
 					
 					//It wasn't a leap year, but the day is between 1 and 28. It is valid.
 					return true;
@@ -390,110 +672,141 @@ public class Date implements Comparable<Date>, Serializable {
 	 */
 	public static int daysBetween(Date date1, Date date2) {
 		
-		return Math.abs(daysSinceYear0(date1) - daysSinceYear0(date2));
+		return Math.abs(date1.epochDay - date2.epochDay);
 		
 	}
 	
 	/**
+	 * Works out the number of days since year 0 from the epoch day, so it takes the same time for any date.<br>
+	 * January 1st, 1 is day 366. Days before that are counted back one at a time, so negative years have negative numbers of days.
 	 * 
 	 * @param date 
 	 * @return The number of days between January 1st, 0 and <code>date</code>
 	 */
 	public static int daysSinceYear0(Date date) {
 		
-		int days = 0;
-		
-		//Add 365 days for each COMPLETE year BEFORE the parameter date
-		days += date.year * 365;
-		//A year is a leap year if it is divisible by 4 but not 100, and it is a leap year if it is divisible by 400
-		//Add an extra day for each year BEFORE THIS YEAR that is divisible by 4
-		days += (date.year - 1) / 4;
-		//Then take back the extra day for each year BEFORE THIS YEAR that is divisible by 100 
-		days -= (date.year - 1) / 100;
-		//Then re-add the extra day that was taken back for each year BEFORE THIS YEAR that is divisible by 400
-		days += (date.year - 1) / 400;
-				
-		//Add the days for each COMPLETE month WITHIN the parameter date's year before the parameter date
-		int daysInYear = 0;
-		for(int month = 1; month < date.month; month++) {
-			
-			daysInYear += getNumberOfDaysInMonth(month, date.year);
-			
-		}
-		
-		//Add the days WITHIN the parameter's month before the parameter date
-		daysInYear += date.day;
-		
-		return days + daysInYear;
+		return date.epochDay + DAYS_SINCE_YEAR_0_AT_EPOCH;
 		
 	}
 	
 	/**
+	 * The inverse of <code>daysSinceYear0</code>, which also takes the same time for any date
 	 * 
 	 * @param daysSinceYear0 An <code>int</code> representing a number of days since year 0
 	 * @return The Date that corresponds with <code>daysSinceYear0</code>
 	 */
 	public static Date dateWithDaysSinceYear0(int daysSinceYear0) {
 		
-		int daysRemaining = daysSinceYear0;
+		return ofEpochDay(daysSinceYear0 - DAYS_SINCE_YEAR_0_AT_EPOCH);
 		
-		int yearCount = 0;
+	}
+	
+	/**
+	 * The epoch day is a compact way of representing a date as a single <code>int</code>. Unlike <code>daysSinceYear0</code>, it is exact for every year, including negative years.
+	 * @return The number of days between January 1st, 1970 and this Date. Negative if this Date is before January 1st, 1970.
+	 */
+	public int toEpochDay() {
 		
-		//We will find which year this lies in by dividing time in terms of 400 year, 100 year, 4 year, and 1 year periods
-		//This is because 400 year periods have a set amount of days (365*400 + 400/4 - 400/100 + 400/400 = 146097 days), 
-		//100 year periods have 365*100 + 100/4 - 100/100 = 36524 days (unless they're a 4n 100-year period, in which then they have an extra leap day)
-		//4 year periods have 365*4 + 4/4 = 1461 days (unless they're a 25n 4-year period, in which then they have one less leap day)
-		//1 year periods have 365 days (unless they're a 4n 1-year period, in which then the year is a leap year and has a leap day).
+		return epochDay;
 		
-		//Find how many 400 year periods are covered in daysSinceYear0. ALL 400 YEAR PERIODS have 146097 days
-		int num400YearPeriods = (daysRemaining - 1) / 146097;
-		yearCount += num400YearPeriods * 400;
-		daysRemaining -= num400YearPeriods * 146097;
+	}
+	
+	//Works out the epoch day of a valid month, day and year
+	private static int toEpochDay(int month, int day, int year) {
 		
-		//Now, we have one to three 100 year periods remaining (we can't have four or over because four 100 year periods = one 400 year period, which would've already been counted)
-		int numRemainder100YearPeriods = (daysRemaining - 1) / 36524;
-		yearCount += numRemainder100YearPeriods * 100;
-		daysRemaining -= numRemainder100YearPeriods * 36524;
+		//Count years from March 1st, so that the leap day is the last day of a year
+		int shiftedYear = month <= 2 ? year - 1 : year;
+		//The 400 year period that the year is in
+		int era = (shiftedYear >= 0 ? shiftedYear : shiftedYear - 399) / 400;
+		int yearOfEra = shiftedYear - era * 400;
+		int dayOfYear = DAYS_BEFORE_MONTH_FROM_MARCH[month - 1] + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
 		
-		//Now, we have one to twenty-four 4 year periods remaining (we can't have twenty-five or over because twenty-five 4 year periods = one 100 year period, which would've already been counted)
-		int numRemainder4YearPeriods = (daysRemaining - 1) / 1461;
-		yearCount += numRemainder4YearPeriods * 4;
-		daysRemaining -= numRemainder4YearPeriods * 1461;
+		//719468 is the number of days between March 1st, 0 and January 1st, 1970
+		return era * 146097 + dayOfEra - 719468;
 		
-		//Now, we have one to three 1 year periods remaining (we can't have four or over because four sets of 1 year periods = one 4 year period, which would've already been counted)
-		int numRemainder1YearPeriods = (daysRemaining - 1) / 365;
-		yearCount += numRemainder1YearPeriods * 1;
-		daysRemaining -= numRemainder1YearPeriods * 365;
+	}
+	
+	/**
+	 * The inverse of <code>toEpochDay()</code>. Dates from <code>CACHED_FIRST_YEAR</code> up to <code>CACHED_END_YEAR</code> are shared instances.
+	 * @param epochDay The number of days between January 1st, 1970 and the date
+	 * @return The Date that corresponds with <code>epochDay</code>
+	 */
+	public static Date ofEpochDay(int epochDay) {
 		
-		//Now, daysRemaining is just the amount of days in the year that daysSinceYear0 is in
-		//We have to find the month and day
+		int cacheIndex = epochDay - CACHED_FIRST_EPOCH_DAY;
 		
-		//Go through every month of the year until there are no more days remaining
-		int month;
-		for(month = 1; month <= 12; month++) {
+		if(cacheIndex < 0 || cacheIndex >= cachedDates.length) {
 			
-			daysRemaining -= getNumberOfDaysInMonth(month, yearCount);
+			return new Date(epochDay);
 			
-			if(daysRemaining <= 0) {
-				
-				//There's no more days remaining. However, we have subtracted too much from daysRemaining.
-				daysRemaining += getNumberOfDaysInMonth(month, yearCount);
-				
-				//Furthermore, if it is a leap year, we must re-add a leap day.
-				//This is because we then would have taken the leap day into consideration twice: once when we were counting years and again when getNumberOfDaysInMonth was called for month 2
-				if(isLeapYear(yearCount)) {
-					
-					daysRemaining++;
-					
-				}
-				
-				break;
-				
-			}
+		}
+		
+		//Two threads may both create the same date at once. Either one is fine, since they are equal.
+		Date date = cachedDates[cacheIndex];
+		if(date == null) {
+			
+			date = new Date(epochDay);
+			cachedDates[cacheIndex] = date;
 			
 		}
 		
-		return new Date(month, daysRemaining, yearCount);
+		return date;
+		
+	}
+	
+	//Works out the month, day and year of this Date, packed into one int as (year << 9) | (month << 5) | day, so that they can be worked out all at once without creating an object
+	private int civilDate() {
+		
+		//Count days from March 1st, 0
+		int shiftedDay = epochDay + 719468;
+		//The 400 year period that the day is in
+		int era = (shiftedDay >= 0 ? shiftedDay : shiftedDay - 146096) / 146097;
+		int dayOfEra = shiftedDay - era * 146097;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int shiftedMonth = (5 * dayOfYear + 2) / 153;
+		
+		int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		
+		return (year << 9) | (month << 5) | day;
+		
+	}
+	
+	//Dates are written as the month, day and year that they were made of before they were stored as epoch days, so that the serialized form never changes
+	private void writeObject(ObjectOutputStream output) throws IOException {
+		
+		ObjectOutputStream.PutField fields = output.putFields();
+		fields.put("month", getMonth());
+		fields.put("day", getDay());
+		fields.put("year", getYear());
+		output.writeFields();
+		
+	}
+	
+	private void readObject(ObjectInputStream input) throws IOException, ClassNotFoundException {
+		
+		ObjectInputStream.GetField fields = input.readFields();
+		int month = fields.get("month", 0);
+		int day = fields.get("day", 0);
+		int year = fields.get("year", 0);
+		
+		if(!isValidDate(month, day, year)) {
+			
+			throw new InvalidObjectException("Invalid date");
+			
+		}
+		
+		deserializedEpochDay = toEpochDay(month, day, year);
+		
+	}
+	
+	//Replaces a deserialized Date, whose epochDay couldn't be set, with the shared instance of its date
+	private Object readResolve() {
+		
+		return ofEpochDay(deserializedEpochDay);
 		
 	}
 	
@@ -531,4 +844,21 @@ public class Date implements Comparable<Date>, Serializable {
 		
 	}
 
-}
+	/**
+	 * A String of <code>toString(DateFormat)</code> and the date that it is for, so that a cache entry is always read whole
+	 */
+	private static class FormattedDate {
+		
+		private final int epochDay;
+		private final String string;
+		
+		private FormattedDate(int epochDay, String string) {
+			
+			this.epochDay = epochDay;
+			this.string = string;
+			
+		}
+		
+	}
+
+}
\ No newline at end of file
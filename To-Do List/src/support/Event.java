@@ -18,6 +18,8 @@ public class Event implements Serializable {
 	private Date endDate;
 	private Date finishedDate;
 	private String eventTitle;
+	/**The ID that FileIO gave the event when it was added, which stays the same for as long as the event exists; 0 if the event hasn't been given one yet*/
+	private long id;
 	
 	/**
 	 * Constructs a new Event with a begin date, end date, and title. The finished date is automatically set to <code>null</code>, representing an unfinished event. <br>
@@ -35,15 +37,16 @@ public class Event implements Serializable {
 			
 		}
 		
-		this.beginDate = (Date) beginDate.clone();
-		this.endDate = (Date) endDate.clone();
+		//Dates are immutable, so they can be shared instead of copied
+		this.beginDate = beginDate;
+		this.endDate = endDate;
 		this.finishedDate = null;
 		this.eventTitle = eventTitle;
 		
 	}
 	
 	/**
-	 * Constructs a new Event that copies the data of the parameter <code>event</code> <br>
+	 * Constructs a new Event that copies the data of the parameter <code>event</code>, except for its ID, since the copy is a different event <br>
 	 * Precondition: <code>event</code> cannot be null
 	 * @param event Another Event object
 	 */
@@ -56,6 +59,25 @@ public class Event implements Serializable {
 		
 	}
 
+	/**
+	 * @return The event's ID, or 0 if it hasn't been given one yet
+	 */
+	public long getId() {
+
+		return id;
+
+	}
+
+	/**
+	 * Sets the event's ID. IDs are only given out by FileIO, so this should only be used by FileIO and by the classes that read saved events.
+	 * @param id The ID
+	 */
+	public void setId(long id) {
+
+		this.id = id;
+
+	}
+
 	public Date getBeginDate() {
 
 		return beginDate;
@@ -120,7 +142,7 @@ public class Event implements Serializable {
 	@Override
 	public Object clone() {
 		
-		return new Event((Date) beginDate.clone(), (Date) endDate.clone(), eventTitle);
+		return new Event(beginDate, endDate, eventTitle);
 		
 	}
 	
@@ -134,5 +156,36 @@ public class Event implements Serializable {
 		return date.compareTo(endDate) > 0 && finishedDate == null;
 		
 	}
+	
+	/**
+	 * The latest date that an Event is shown on is its finished date if it was finished before its end date, and its end date otherwise
+	 * @return The latest date that <code>this</code> Event is shown on
+	 */
+	public Date getLatestShowingDate() {
+		
+		if(finishedDate != null && finishedDate.compareTo(endDate) <= 0) {
+			
+			//The event has a finish date, and the finish date is before the event's end date, so the latest showing date would be its finish date.
+			return finishedDate;
+			
+		} else {
+			
+			//The event has no finish date, so the latest showing date would be its end date.
+			return endDate;
+			
+		}
+		
+	}
+	
+	/**
+	 * An Event is shown on <code>date</code> if <code>date</code> is between its begin date and its latest showing date (inclusive).
+	 * @param date The date to check
+	 * @return True if <code>this</code> Event is shown on <code>date</code>
+	 */
+	public boolean isShownOn(Date date) {
+		
+		return date.compareTo(beginDate) >= 0 && date.compareTo(getLatestShowingDate()) <= 0;
+		
+	}
 
 }
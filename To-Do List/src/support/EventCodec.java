@@ -0,0 +1,698 @@
+package support;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ *
+ * Reads and writes Events and Dates in a compact binary form, without using Java object serialization.<br>
+ * Dates are written as variable-length integers (varints) of their epoch day, and titles are written as UTF-8 bytes that are prefixed with their length.<br>
+ * A list of events is written as:
+ * <ol>
+ * <li>The number of events (varint)</li>
+ * <li>A bitmap with one bit per event that is set if the event has a finished date</li>
+ * <li>For each event: its ID as the difference from the ID of the event before it (signed varlong), its title, the epoch day of its begin date (signed varint), 
+ * the number of days from its begin date to its end date (varint), and, if the event is finished, the number of days from its begin date to its finished date (signed varint)</li>
+ * </ol>
+ * Most dates are close to the begin date of their event, and events are mostly in the order that they were given their IDs, so these differences almost always fit in one byte.
+ * Lists that were written before events had IDs (FileIO versions before 2.6) are read with <code>readEventsWithoutIds</code>.<br><br>
+ * A list of events can also be written in chunks (see <code>Chunk</code>) that can be decoded independently of each other, and therefore at the same time. 
+ * Each chunk has a checksum, so that a damaged chunk can be skipped without losing the other chunks. 
+ * Chunks can also be compressed with a dictionary of the titles that repeat the most (see <code>buildDictionary</code>), which every chunk of a list shares.
+ *
+ * @author James
+ */
+public abstract class EventCodec {
+	
+	/**
+	 * Writes a list of events
+	 * @param output The output to write to
+	 * @param events The events
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeEvents(DataOutput output, List<Event> events) throws IOException {
+		
+		writeVarInt(output, events.size());
+		
+		//The null bitmap for the finished dates
+		byte[] finishedBitmap = new byte[(events.size() + 7) / 8];
+		for(int i = 0; i < events.size(); i++) {
+			
+			if(events.get(i).getFinishedDate() != null) {
+				
+				finishedBitmap[i / 8] |= 1 << (i % 8);
+				
+			}
+			
+		}
+		output.write(finishedBitmap);
+		
+		long previousId = 0;
+		for(int i = 0; i < events.size(); i++) {
+			
+			Event event = events.get(i);
+			int beginDay = event.getBeginDate().toEpochDay();
+			
+			writeSignedVarLong(output, event.getId() - previousId);
+			previousId = event.getId();
+			writeString(output, event.getEventTitle());
+			writeSignedVarInt(output, beginDay);
+			writeVarInt(output, event.getEndDate().toEpochDay() - beginDay);
+			if(event.getFinishedDate() != null) {
+				
+				writeSignedVarInt(output, event.getFinishedDate().toEpochDay() - beginDay);
+				
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Reads a list of events that was written by <code>writeEvents</code>
+	 * @param input The input to read from
+	 * @return A new list of the events
+	 * @throws IOException If the input cannot be read from, or if it doesn't contain a valid list of events
+	 */
+	public static ArrayList<Event> readEvents(DataInput input) throws IOException {
+		
+		return readEvents(input, true);
+		
+	}
+	
+	/**
+	 * Reads a list of events that was written before events had IDs, which is the same as the current format without the IDs. The events are read without IDs.
+	 * @param input The input to read from
+	 * @return A new list of the events
+	 * @throws IOException If the input cannot be read from, or if it doesn't contain a valid list of events
+	 */
+	public static ArrayList<Event> readEventsWithoutIds(DataInput input) throws IOException {
+		
+		return readEvents(input, false);
+		
+	}
+	
+	private static ArrayList<Event> readEvents(DataInput input, boolean hasIds) throws IOException {
+		
+		int eventCount = readVarInt(input);
+		
+		byte[] finishedBitmap = new byte[(eventCount + 7) / 8];
+		input.readFully(finishedBitmap);
+		
+		ArrayList<Event> events = new ArrayList<Event>(eventCount);
+		long id = 0;
+		for(int i = 0; i < eventCount; i++) {
+			
+			if(hasIds) {
+				
+				id += readSignedVarLong(input);
+				
+			}
+			String eventTitle = readString(input);
+			int beginDay = readSignedVarInt(input);
+			int endDay = beginDay + readVarInt(input);
+			
+			Event event = new Event(Date.ofEpochDay(beginDay), Date.ofEpochDay(endDay), eventTitle);
+			if((finishedBitmap[i / 8] & (1 << (i % 8))) != 0) {
+				
+				event.setFinishedDate(Date.ofEpochDay(beginDay + readSignedVarInt(input)));
+				
+			}
+			event.setId(id);
+			
+			events.add(event);
+			
+		}
+		
+		return events;
+		
+	}
+	
+	/**
+	 * The greatest size of a compression dictionary. Deflate can't refer back any further than this.
+	 */
+	public static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+	
+	/**
+	 * Writes a chunk of events that can be decoded independently of the other chunks, and whose damage can be detected<br>
+	 * This writes the range of days that the events are shown on (two signed varints), the number of bytes of the events (varint), 
+	 * the CRC-32 checksum of the range and the events (int), and the events as written by <code>writeEvents</code>
+	 * @param output The output to write to
+	 * @param events The events of the chunk
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeEventChunk(DataOutput output, List<Event> events) throws IOException {
+		
+		writeEventChunk(output, events, null);
+		
+	}
+	
+	/**
+	 * Writes a chunk like <code>writeEventChunk(DataOutput, List)</code>, but compresses the events with Deflate first<br>
+	 * The checksum is of the compressed events, so a chunk can be checked without being decompressed.
+	 * @param output The output to write to
+	 * @param events The events of the chunk
+	 * @param dictionary The dictionary to compress the events with, which is needed again to decode the chunk, or null to not compress the events
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeEventChunk(DataOutput output, List<Event> events, byte[] dictionary) throws IOException {
+		
+		int firstDay = Integer.MAX_VALUE;
+		int lastDay = Integer.MIN_VALUE;
+		for(Event event : events) {
+			
+			firstDay = Math.min(firstDay, event.getBeginDate().toEpochDay());
+			lastDay = Math.max(lastDay, event.getLatestShowingDate().toEpochDay());
+			
+		}
+		
+		ByteArrayOutputStream chunkData = new ByteArrayOutputStream();
+		writeEvents(new DataOutputStream(chunkData), events);
+		byte[] data = dictionary == null ? chunkData.toByteArray() : compress(chunkData.toByteArray(), dictionary);
+		
+		writeSignedVarInt(output, firstDay);
+		writeSignedVarInt(output, lastDay);
+		writeVarInt(output, data.length);
+		output.writeInt((int) checksum(firstDay, lastDay, data));
+		output.write(data);
+		
+	}
+	
+	/**
+	 * Reads a chunk that was written by <code>writeEventChunk</code> without a dictionary, without decoding or checking it
+	 * @param input The input to read from
+	 * @return The chunk
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static Chunk readEventChunk(DataInput input) throws IOException {
+		
+		return readEventChunk(input, null);
+		
+	}
+	
+	/**
+	 * Reads a chunk that was written by <code>writeEventChunk</code>, without decoding or checking it
+	 * @param input The input to read from
+	 * @param dictionary The dictionary that the chunk was compressed with, or null if it wasn't compressed
+	 * @return The chunk
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static Chunk readEventChunk(DataInput input, byte[] dictionary) throws IOException {
+		
+		return readEventChunk(input, dictionary, true);
+		
+	}
+	
+	/**
+	 * Reads a chunk that was written by <code>writeEventChunk</code>, or by a FileIO version before 2.6, whose events have no IDs, without decoding or checking it
+	 * @param input The input to read from
+	 * @param dictionary The dictionary that the chunk was compressed with, or null if it wasn't compressed
+	 * @param hasEventIds False if the chunk was written before events had IDs
+	 * @return The chunk
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static Chunk readEventChunk(DataInput input, byte[] dictionary, boolean hasEventIds) throws IOException {
+		
+		int firstDay = readSignedVarInt(input);
+		int lastDay = readSignedVarInt(input);
+		int length = readVarInt(input);
+		
+		if(length < 0) {
+			
+			throw new StreamCorruptedException("Invalid chunk length");
+			
+		}
+		
+		long checksum = input.readInt() & 0xFFFFFFFFL;
+		byte[] data = new byte[length];
+		input.readFully(data);
+		
+		return new Chunk(firstDay, lastDay, data, checksum, dictionary, hasEventIds);
+		
+	}
+	
+	/**
+	 * Builds a compression dictionary out of the titles that repeat the most in a list of events<br>
+	 * Deflate finds repeats within a chunk on its own, so the dictionary mostly helps with the first time that a title shows up in each chunk.
+	 * The titles that repeat the most go at the end of the dictionary, since Deflate can refer to nearer bytes with fewer bits.
+	 * @param events The events
+	 * @return The dictionary, which is at most <code>MAX_DICTIONARY_SIZE</code> bytes long
+	 */
+	public static byte[] buildDictionary(List<Event> events) {
+		
+		HashMap<String, Integer> titleCounts = new HashMap<String, Integer>();
+		for(Event event : events) {
+			
+			titleCounts.merge(event.getEventTitle(), 1, Integer::sum);
+			
+		}
+		
+		ArrayList<Map.Entry<String, Integer>> repeatedTitles = new ArrayList<Map.Entry<String, Integer>>();
+		for(Map.Entry<String, Integer> entry : titleCounts.entrySet()) {
+			
+			if(entry.getValue() > 1) {
+				
+				repeatedTitles.add(entry);
+				
+			}
+			
+		}
+		//The titles that repeat the most first
+		repeatedTitles.sort((entry1, entry2) -> Integer.compare(entry2.getValue(), entry1.getValue()));
+		
+		//Take as many of the most repeated titles as fit, and then put them in the opposite order
+		ArrayList<byte[]> titles = new ArrayList<byte[]>();
+		int size = 0;
+		for(Map.Entry<String, Integer> entry : repeatedTitles) {
+			
+			byte[] title = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			
+			if(size + title.length > MAX_DICTIONARY_SIZE) {
+				
+				continue;
+				
+			}
+			
+			titles.add(title);
+			size += title.length;
+			
+		}
+		
+		byte[] dictionary = new byte[size];
+		int offset = size;
+		for(byte[] title : titles) {
+			
+			offset -= title.length;
+			System.arraycopy(title, 0, dictionary, offset, title.length);
+			
+		}
+		
+		return dictionary;
+		
+	}
+	
+	//Compresses the bytes of a chunk with raw Deflate, since the chunk already has a checksum
+	private static byte[] compress(byte[] data, byte[] dictionary) throws IOException {
+		
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		
+		try {
+			
+			deflater.setDictionary(dictionary);
+			
+			ByteArrayOutputStream compressedData = new ByteArrayOutputStream(data.length / 2 + 64);
+			DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(compressedData, deflater);
+			deflaterOutput.write(data);
+			deflaterOutput.finish();
+			
+			return compressedData.toByteArray();
+			
+		} finally {
+			
+			deflater.end();
+			
+		}
+		
+	}
+	
+	//The CRC-32 checksum of a chunk, which also covers its range of days so that a damaged range can't hide the chunk's events
+	private static long checksum(int firstDay, int lastDay, byte[] data) {
+		
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			
+			crc.update(firstDay >>> shift);
+			
+		}
+		for(int shift = 24; shift >= 0; shift -= 8) {
+			
+			crc.update(lastDay >>> shift);
+			
+		}
+		
+		return crc.getValue();
+		
+	}
+	
+	//Decompresses the bytes of a chunk that were compressed by compress
+	//The whole chunk is decompressed at once, since the events are read a few bytes at a time
+	private static byte[] decompress(byte[] data, byte[] dictionary) throws IOException {
+		
+		Inflater inflater = new Inflater(true);
+		
+		try {
+			
+			inflater.setDictionary(dictionary);
+			inflater.setInput(data);
+			
+			ByteArrayOutputStream decompressedData = new ByteArrayOutputStream(data.length * 4);
+			byte[] buffer = new byte[8192];
+			while(!inflater.finished()) {
+				
+				int length = inflater.inflate(buffer);
+				
+				if(length == 0 && inflater.needsInput()) {
+					
+					throw new StreamCorruptedException("The chunk's compressed events end early");
+					
+				}
+				
+				decompressedData.write(buffer, 0, length);
+				
+			}
+			
+			return decompressedData.toByteArray();
+			
+		} catch(DataFormatException e) {
+			
+			throw new StreamCorruptedException(e.getMessage());
+			
+		} finally {
+			
+			inflater.end();
+			
+		}
+		
+	}
+	
+	/**
+	 * Reads a list of chunks in the format of FileIO versions 2.2 and 2.3, which have no checksums<br>
+	 * This is the number of chunks (varint), and then for each chunk: the range of days that its events are shown on (two signed varints),
+	 * the number of bytes of the chunk (varint), and the chunk's events, which have no IDs
+	 * @param input The input to read from
+	 * @return A new list of the chunks, in the order of their events
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static ArrayList<Chunk> readEventChunks(DataInput input) throws IOException {
+		
+		int chunkCount = readVarInt(input);
+		
+		ArrayList<Chunk> chunks = new ArrayList<Chunk>(chunkCount);
+		for(int i = 0; i < chunkCount; i++) {
+			
+			int firstDay = readSignedVarInt(input);
+			int lastDay = readSignedVarInt(input);
+			byte[] data = new byte[readVarInt(input)];
+			input.readFully(data);
+			
+			chunks.add(new Chunk(firstDay, lastDay, data, Chunk.NO_CHECKSUM, null, false));
+			
+		}
+		
+		return chunks;
+		
+	}
+	
+	/**
+	 * Writes a date as a signed varint of its epoch day
+	 * @param output The output to write to
+	 * @param date The date
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeDate(DataOutput output, Date date) throws IOException {
+		
+		writeSignedVarInt(output, date.toEpochDay());
+		
+	}
+	
+	/**
+	 * Reads a date that was written by <code>writeDate</code>
+	 * @param input The input to read from
+	 * @return The date
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static Date readDate(DataInput input) throws IOException {
+		
+		return Date.ofEpochDay(readSignedVarInt(input));
+		
+	}
+	
+	/**
+	 * Writes a String as its length in UTF-8 bytes (varint), followed by the UTF-8 bytes. Unlike <code>DataOutput.writeUTF</code>, there is no limit to the length of the String.
+	 * @param output The output to write to
+	 * @param str The String
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeString(DataOutput output, String str) throws IOException {
+		
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(output, bytes.length);
+		output.write(bytes);
+		
+	}
+	
+	/**
+	 * Reads a String that was written by <code>writeString</code>
+	 * @param input The input to read from
+	 * @return The String
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static String readString(DataInput input) throws IOException {
+		
+		byte[] bytes = new byte[readVarInt(input)];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+		
+	}
+	
+	/**
+	 * Writes a non-negative int in 1 to 5 bytes. Each byte holds 7 bits of the int, and its highest bit is set if more bytes follow.
+	 * @param output The output to write to
+	 * @param value The int
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeVarInt(DataOutput output, int value) throws IOException {
+		
+		while((value & ~0x7F) != 0) {
+			
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+			
+		}
+		
+		output.writeByte(value);
+		
+	}
+	
+	/**
+	 * Reads an int that was written by <code>writeVarInt</code>
+	 * @param input The input to read from
+	 * @return The int
+	 * @throws IOException If the input cannot be read from, or if the varint is longer than 5 bytes
+	 */
+	public static int readVarInt(DataInput input) throws IOException {
+		
+		int value = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			
+			byte b = input.readByte();
+			value |= (b & 0x7F) << shift;
+			
+			if((b & 0x80) == 0) {
+				
+				return value;
+				
+			}
+			
+		}
+		
+		throw new StreamCorruptedException("Malformed varint");
+		
+	}
+	
+	/**
+	 * Writes an int that may be negative. Ints that are close to 0 (whether they are positive or negative) take up fewer bytes.
+	 * @param output The output to write to
+	 * @param value The int
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeSignedVarInt(DataOutput output, int value) throws IOException {
+		
+		//ZigZag encoding: 0, -1, 1, -2, 2... become 0, 1, 2, 3, 4...
+		writeVarInt(output, (value << 1) ^ (value >> 31));
+		
+	}
+	
+	/**
+	 * Reads an int that was written by <code>writeSignedVarInt</code>
+	 * @param input The input to read from
+	 * @return The int
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static int readSignedVarInt(DataInput input) throws IOException {
+		
+		int zigZag = readVarInt(input);
+		return (zigZag >>> 1) ^ -(zigZag & 1);
+		
+	}
+	
+	/**
+	 * Writes a non-negative long in 1 to 10 bytes, the same way as <code>writeVarInt</code>
+	 * @param output The output to write to
+	 * @param value The long
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeVarLong(DataOutput output, long value) throws IOException {
+		
+		while((value & ~0x7FL) != 0) {
+			
+			output.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+			
+		}
+		
+		output.writeByte((int) value);
+		
+	}
+	
+	/**
+	 * Reads a long that was written by <code>writeVarLong</code>
+	 * @param input The input to read from
+	 * @return The long
+	 * @throws IOException If the input cannot be read from, or if the varlong is longer than 10 bytes
+	 */
+	public static long readVarLong(DataInput input) throws IOException {
+		
+		long value = 0;
+		for(int shift = 0; shift < 70; shift += 7) {
+			
+			byte b = input.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			
+			if((b & 0x80) == 0) {
+				
+				return value;
+				
+			}
+			
+		}
+		
+		throw new StreamCorruptedException("Malformed varlong");
+		
+	}
+	
+	/**
+	 * Writes a long that may be negative, the same way as <code>writeSignedVarInt</code>
+	 * @param output The output to write to
+	 * @param value The long
+	 * @throws IOException If the output cannot be written to
+	 */
+	public static void writeSignedVarLong(DataOutput output, long value) throws IOException {
+		
+		writeVarLong(output, (value << 1) ^ (value >> 63));
+		
+	}
+	
+	/**
+	 * Reads a long that was written by <code>writeSignedVarLong</code>
+	 * @param input The input to read from
+	 * @return The long
+	 * @throws IOException If the input cannot be read from
+	 */
+	public static long readSignedVarLong(DataInput input) throws IOException {
+		
+		long zigZag = readVarLong(input);
+		return (zigZag >>> 1) ^ -(zigZag & 1);
+		
+	}
+	
+	/**
+	 * 
+	 * A part of a list of events that can be decoded on its own<br>
+	 * A chunk also has the range of days that its events are shown on, so that the events that are shown on a day can be found without decoding every chunk.
+	 * 
+	 * @author James
+	 */
+	public static class Chunk {
+		
+		/**The checksum of chunks that were written without one*/
+		public static final long NO_CHECKSUM = -1;
+		
+		/**The epoch day of the earliest date that any event of the chunk is shown on*/
+		public final int firstDay;
+		/**The epoch day of the latest date that any event of the chunk is shown on*/
+		public final int lastDay;
+		/**The encoded events*/
+		private final byte[] data;
+		/**The CRC-32 checksum that the encoded events had when they were written, or <code>NO_CHECKSUM</code>*/
+		private final long checksum;
+		/**The dictionary that the encoded events were compressed with; null if they aren't compressed*/
+		private final byte[] dictionary;
+		/**False if the encoded events were written before events had IDs*/
+		private final boolean hasEventIds;
+		
+		public Chunk(int firstDay, int lastDay, byte[] data, long checksum, byte[] dictionary, boolean hasEventIds) {
+			
+			this.firstDay = firstDay;
+			this.lastDay = lastDay;
+			this.data = data;
+			this.checksum = checksum;
+			this.dictionary = dictionary;
+			this.hasEventIds = hasEventIds;
+			
+		}
+		
+		/**
+		 * @param epochDay The epoch day of a date
+		 * @return False if none of the chunk's events are shown on the date
+		 */
+		public boolean mayBeShownOn(int epochDay) {
+			
+			return epochDay >= firstDay && epochDay <= lastDay;
+			
+		}
+		
+		/**
+		 * Checks the encoded events against the checksum that they were written with
+		 * @return False if the chunk was damaged since it was written
+		 */
+		public boolean isIntact() {
+			
+			if(checksum == NO_CHECKSUM) {
+				
+				return true;
+				
+			}
+			
+			return checksum(firstDay, lastDay, data) == checksum;
+			
+		}
+		
+		/**
+		 * Checks, decompresses, and decodes the chunk's events. This may be called on any thread.
+		 * @return A new list of the chunk's events
+		 * @throws IOException If the chunk is damaged, or doesn't contain a valid list of events
+		 */
+		public ArrayList<Event> decode() throws IOException {
+			
+			if(!isIntact()) {
+				
+				throw new StreamCorruptedException("The chunk's checksum doesn't match its events");
+				
+			}
+			
+			byte[] events = dictionary == null ? data : decompress(data, dictionary);
+			return readEvents(new DataInputStream(new ByteArrayInputStream(events)), hasEventIds);
+			
+		}
+		
+	}
+	
+}